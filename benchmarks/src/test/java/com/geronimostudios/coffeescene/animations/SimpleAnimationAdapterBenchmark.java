@@ -0,0 +1,83 @@
+package com.geronimostudios.coffeescene.animations;
+
+import android.content.Context;
+import android.util.SparseArray;
+import android.view.View;
+
+import com.geronimostudios.coffeescene.annotations.Scene;
+import com.geronimostudios.coffeescene.benchmarks.MainLooper;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.robolectric.RuntimeEnvironment;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p>Cost of {@link SimpleAnimationAdapter#doChangeScene(SparseArray, ScenesParams, int, boolean)}
+ * depending on the number of views per scene.</p>
+ *
+ * <p>The views are created and changed on the main looper, see {@link MainLooper}.
+ * Each invocation runs {@link #SWITCHES} switches in one main looper task.</p>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class SimpleAnimationAdapterBenchmark {
+    private static final int[] SCENES = {Scene.MAIN, Scene.SPINNER, Scene.PLACEHOLDER};
+    private static final int SWITCHES = 1000;
+
+    @Param({"1", "10", "100"})
+    public int viewsPerScene;
+
+    private SimpleAnimationAdapter<ScenesParams> mAdapter;
+    private SparseArray<List<View>> mScenes;
+    private int mIndex;
+
+    private final Runnable mSceneTask = new Runnable() {
+        @Override
+        public void run() {
+            for (int i = 0; i < SWITCHES; ++i) {
+                mIndex = (mIndex + 1) % SCENES.length;
+                mAdapter.doChangeScene(mScenes, null, SCENES[mIndex], false);
+            }
+        }
+    };
+
+    @Setup
+    public void setUp() {
+        MainLooper.run(new Runnable() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public void run() {
+                Context context = RuntimeEnvironment.application;
+                mAdapter = (SimpleAnimationAdapter<ScenesParams>) SceneAnimations.NO_ANIMATION;
+                mScenes = new SparseArray<>();
+                for (int sceneId : SCENES) {
+                    List<View> views = new ArrayList<>();
+                    for (int i = 0; i < viewsPerScene; ++i) {
+                        views.add(new View(context));
+                    }
+                    mScenes.put(sceneId, views);
+                }
+                mAdapter.doChangeScene(mScenes, null, SCENES[0], false);
+            }
+        });
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SWITCHES)
+    public int doChangeScene() {
+        MainLooper.run(mSceneTask);
+        return mIndex;
+    }
+}
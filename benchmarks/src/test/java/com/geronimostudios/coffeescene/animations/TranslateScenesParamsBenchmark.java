@@ -0,0 +1,47 @@
+package com.geronimostudios.coffeescene.animations;
+
+import android.util.SparseArray;
+import android.view.View;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of {@link TranslateScenesParams#positionOf(int)} depending on the number of scenes.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class TranslateScenesParamsBenchmark {
+
+    @Param({"3", "10", "50"})
+    public int scenes;
+
+    private TranslateScenesParams mParams;
+    private int mSceneId;
+
+    @Setup
+    public void setUp() {
+        SparseArray<List<View>> sceneViews = new SparseArray<>();
+        for (int i = 0; i < scenes; ++i) {
+            sceneViews.put(i, new ArrayList<View>());
+        }
+        mParams = new TranslateScenesParams(sceneViews);
+    }
+
+    @Benchmark
+    public int positionOf() {
+        mSceneId = (mSceneId + 1) % scenes;
+        return mParams.positionOf(mSceneId);
+    }
+}
@@ -0,0 +1,45 @@
+package com.geronimostudios.coffeescene.benchmarks;
+
+import android.content.Context;
+import android.widget.FrameLayout;
+
+import com.geronimostudios.coffeescene.annotations.CoffeeScene;
+import com.geronimostudios.coffeescene.annotations.Scene;
+
+/**
+ * A scene holder with three scenes. The layouts of the framework are used
+ * since the R ids of a library module are not constants.
+ */
+@CoffeeScene(
+        value = {
+                @Scene(scene = Scene.MAIN, layout = android.R.layout.simple_list_item_1),
+                @Scene(scene = Scene.SPINNER, layout = android.R.layout.simple_spinner_item),
+                @Scene(scene = Scene.PLACEHOLDER, layout = android.R.layout.simple_list_item_2)
+        },
+        first = Scene.MAIN
+)
+public class BenchmarkHolder extends FrameLayout {
+
+    public BenchmarkHolder(Context context) {
+        super(context);
+    }
+
+    /**
+     * The same scenes, inflated lazily.
+     */
+    @CoffeeScene(
+            value = {
+                    @Scene(scene = Scene.MAIN, layout = android.R.layout.simple_list_item_1),
+                    @Scene(scene = Scene.SPINNER, layout = android.R.layout.simple_spinner_item),
+                    @Scene(scene = Scene.PLACEHOLDER, layout = android.R.layout.simple_list_item_2)
+            },
+            first = Scene.MAIN,
+            lazy = true
+    )
+    public static class Lazy extends FrameLayout {
+
+        public Lazy(Context context) {
+            super(context);
+        }
+    }
+}
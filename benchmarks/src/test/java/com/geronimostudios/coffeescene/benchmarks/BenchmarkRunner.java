@@ -0,0 +1,59 @@
+package com.geronimostudios.coffeescene.benchmarks;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.io.File;
+
+/**
+ * <p>Run the JMH benchmarks inside the Robolectric sandbox.</p>
+ *
+ * <p>The benchmarks are not forked: a forked JVM would not have the Android
+ * framework set up by Robolectric. The main looper keeps running during the benchmarks,
+ * see {@link MainLooper}.</p>
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 27)
+public class BenchmarkRunner {
+
+    @Test
+    public void runBenchmarks() throws Throwable {
+        File results = new File(System.getProperty(
+                "benchmark.results", "build/reports/benchmarks/results.json"));
+        //noinspection ResultOfMethodCallIgnored
+        results.getParentFile().mkdirs();
+
+        final Options options = new OptionsBuilder()
+                .include(System.getProperty("benchmark.include", ".*Benchmark.*"))
+                .forks(0)
+                .warmupIterations(5)
+                .measurementIterations(10)
+                .resultFormat(ResultFormatType.JSON)
+                .result(results.getAbsolutePath())
+                .build();
+        // JMH runs on another thread while this one, the main thread, loops the main looper
+        final Throwable[] failure = new Throwable[1];
+        Thread thread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    new Runner(options).run();
+                } catch (RunnerException | RuntimeException e) {
+                    failure[0] = e;
+                }
+            }
+        }, "jmh-runner");
+        thread.start();
+        MainLooper.loopUntilDone(thread);
+        if (failure[0] != null) {
+            throw failure[0];
+        }
+    }
+}
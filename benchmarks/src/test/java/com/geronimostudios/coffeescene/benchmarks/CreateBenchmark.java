@@ -0,0 +1,78 @@
+package com.geronimostudios.coffeescene.benchmarks;
+
+import android.content.Context;
+import android.view.ViewGroup;
+
+import com.geronimostudios.coffeescene.SceneManager;
+import com.geronimostudios.coffeescene.animations.SceneAnimations;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.robolectric.RuntimeEnvironment;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p>Cost of {@link SceneManager#create(ViewGroup)}: annotation lookup, inflation and
+ * registration of the scenes.</p>
+ *
+ * <p>The scenes are created and released on the main looper, see {@link MainLooper}.
+ * Each invocation runs {@link #CREATES} creations in one main looper task.</p>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class CreateBenchmark {
+
+    private static final int CREATES = 100;
+
+    private Context mContext;
+    private ViewGroup mRoot;
+
+    private final Runnable mCreateTask = new Runnable() {
+        @Override
+        public void run() {
+            for (int i = 0; i < CREATES; ++i) {
+                BenchmarkHolder holder = new BenchmarkHolder(mContext);
+                mRoot = SceneManager.create(holder, SceneAnimations.NO_ANIMATION);
+                SceneManager.release(holder);
+            }
+        }
+    };
+
+    private final Runnable mCreateLazyTask = new Runnable() {
+        @Override
+        public void run() {
+            for (int i = 0; i < CREATES; ++i) {
+                BenchmarkHolder.Lazy holder = new BenchmarkHolder.Lazy(mContext);
+                mRoot = SceneManager.create(holder, SceneAnimations.NO_ANIMATION);
+                SceneManager.release(holder);
+            }
+        }
+    };
+
+    @Setup
+    public void setUp() {
+        mContext = RuntimeEnvironment.application;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(CREATES)
+    public ViewGroup create() {
+        MainLooper.run(mCreateTask);
+        return mRoot;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(CREATES)
+    public ViewGroup createLazy() {
+        MainLooper.run(mCreateLazyTask);
+        return mRoot;
+    }
+}
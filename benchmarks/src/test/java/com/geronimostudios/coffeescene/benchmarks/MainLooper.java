@@ -0,0 +1,66 @@
+package com.geronimostudios.coffeescene.benchmarks;
+
+import android.os.Handler;
+import android.os.Looper;
+
+import org.robolectric.shadows.ShadowLooper;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * <p>Runs the code of a benchmark on the main looper of Robolectric.</p>
+ *
+ * <p>JMH calls the benchmarks from its own threads, even without fork. A switch requested
+ * from another thread is only posted to the main thread, see
+ * {@link com.geronimostudios.coffeescene.SceneManager#scene(Object, int)}: the benchmarks
+ * of the switches run their body with {@link #run(Runnable)}, and
+ * {@link BenchmarkRunner} loops the main looper while JMH runs. The views are only
+ * created and changed on the main looper too, like in an application.</p>
+ */
+public final class MainLooper {
+    private static final Handler sHandler = new Handler(Looper.getMainLooper());
+
+    private MainLooper() {
+        // ignored - not instantiable
+    }
+
+    /**
+     * Run a task on the main looper and wait for it. Called from a JMH thread.
+     */
+    public static void run(final Runnable task) {
+        if (Looper.myLooper() == Looper.getMainLooper()) {
+            task.run();
+            return;
+        }
+        final CountDownLatch done = new CountDownLatch(1);
+        sHandler.post(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    task.run();
+                } finally {
+                    done.countDown();
+                }
+            }
+        });
+        try {
+            done.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Run the tasks posted to the main looper until the thread is done.
+     * Called from the main thread.
+     */
+    static void loopUntilDone(Thread thread) {
+        while (thread.isAlive()) {
+            ShadowLooper.runUiThreadTasks();
+            LockSupport.parkNanos(10000);
+        }
+        ShadowLooper.runUiThreadTasks();
+    }
+}
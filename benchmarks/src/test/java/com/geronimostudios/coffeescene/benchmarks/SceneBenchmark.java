@@ -0,0 +1,126 @@
+package com.geronimostudios.coffeescene.benchmarks;
+
+import android.content.Context;
+
+import com.geronimostudios.coffeescene.SceneController;
+import com.geronimostudios.coffeescene.SceneManager;
+import com.geronimostudios.coffeescene.animations.SceneAnimations;
+import com.geronimostudios.coffeescene.annotations.Scene;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.robolectric.RuntimeEnvironment;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p>Cost of {@link SceneManager#scene(Object, int, boolean)} and
+ * {@link SceneManager#current(Object)} depending on the number of registered holders,
+ * compared to a {@link SceneController} that does not look the scenes up.</p>
+ *
+ * <p>The switches are done on the main looper: from a JMH thread they would only be posted.
+ * Each invocation runs {@link #SWITCHES} switches in one main looper task, so the
+ * hand-off to the main thread is amortized.</p>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class SceneBenchmark {
+
+    private static final int SWITCHES = 1000;
+
+    @Param({"1", "10", "100", "1000"})
+    public int holders;
+
+    private BenchmarkHolder[] mHolders;
+    private BenchmarkHolder mTarget;
+    private SceneController mController;
+    private int mScene = Scene.MAIN;
+
+    private final Runnable mSceneTask = new Runnable() {
+        @Override
+        public void run() {
+            for (int i = 0; i < SWITCHES; ++i) {
+                mScene = mScene == Scene.MAIN ? Scene.SPINNER : Scene.MAIN;
+                SceneManager.scene(mTarget, mScene, false);
+            }
+        }
+    };
+
+    private final Runnable mControllerSceneTask = new Runnable() {
+        @Override
+        public void run() {
+            for (int i = 0; i < SWITCHES; ++i) {
+                mScene = mScene == Scene.MAIN ? Scene.SPINNER : Scene.MAIN;
+                mController.scene(mScene, false);
+            }
+        }
+    };
+
+    @Setup
+    public void setUp() {
+        MainLooper.run(new Runnable() {
+            @Override
+            public void run() {
+                Context context = RuntimeEnvironment.application;
+                mHolders = new BenchmarkHolder[holders];
+                for (int i = 0; i < holders; ++i) {
+                    mHolders[i] = new BenchmarkHolder(context);
+                    SceneManager.create(mHolders[i], SceneAnimations.NO_ANIMATION);
+                }
+                mTarget = mHolders[holders / 2];
+                mController = SceneManager.controller(mTarget);
+            }
+        });
+    }
+
+    @TearDown
+    public void tearDown() {
+        MainLooper.run(new Runnable() {
+            @Override
+            public void run() {
+                for (BenchmarkHolder holder : mHolders) {
+                    SceneManager.release(holder);
+                }
+            }
+        });
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SWITCHES)
+    public int scene() {
+        MainLooper.run(mSceneTask);
+        if (SceneManager.current(mTarget) != mScene) {
+            throw new IllegalStateException("The switches have not been done");
+        }
+        return mScene;
+    }
+
+    @Benchmark
+    public int current() {
+        return SceneManager.current(mTarget);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SWITCHES)
+    public int controllerScene() {
+        MainLooper.run(mControllerSceneTask);
+        if (mController.current() != mScene) {
+            throw new IllegalStateException("The switches have not been done");
+        }
+        return mScene;
+    }
+
+    @Benchmark
+    public int controllerCurrent() {
+        return mController.current();
+    }
+}
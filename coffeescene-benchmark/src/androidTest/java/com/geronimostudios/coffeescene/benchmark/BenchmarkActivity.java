@@ -0,0 +1,22 @@
+package com.geronimostudios.coffeescene.benchmark;
+
+import android.app.Activity;
+
+import com.geronimostudios.coffeescene.annotations.CoffeeScene;
+import com.geronimostudios.coffeescene.annotations.Scene;
+
+/**
+ * An activity with three scenes, created by the benchmarks.
+ * The layouts of the framework are used since the R ids of a library module
+ * are not constants.
+ */
+@CoffeeScene(
+        value = {
+                @Scene(scene = Scene.MAIN, layout = android.R.layout.simple_list_item_1),
+                @Scene(scene = Scene.SPINNER, layout = android.R.layout.simple_spinner_item),
+                @Scene(scene = Scene.PLACEHOLDER, layout = android.R.layout.simple_list_item_2)
+        },
+        first = Scene.MAIN
+)
+public class BenchmarkActivity extends Activity {
+}
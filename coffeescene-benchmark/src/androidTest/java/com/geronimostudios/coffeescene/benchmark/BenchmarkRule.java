@@ -0,0 +1,161 @@
+package com.geronimostudios.coffeescene.benchmark;
+
+import android.os.Bundle;
+import android.os.Debug;
+import android.support.test.InstrumentationRegistry;
+import android.util.Log;
+import android.view.Choreographer;
+
+import org.junit.rules.TestRule;
+import org.junit.runner.Description;
+import org.junit.runners.model.Statement;
+
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * <p>A minimal benchmark loop: the measured block is called a few times to warm up,
+ * then each iteration is timed and the allocations of the thread are counted.</p>
+ *
+ * <p>The min and median time and the allocations per iteration are reported in the
+ * instrumentation status and in logcat.</p>
+ *
+ * <p>{@link #measureFrames(Runnable)} reports the frame intervals instead, to measure
+ * the cost of the animations. {@link #countAllocations(Runnable)} only counts the
+ * allocations, for the tests that must not allocate.</p>
+ */
+public final class BenchmarkRule implements TestRule {
+    private static final String TAG = "CoffeeSceneBenchmark";
+    private static final int REPORT_KEY = 2;
+    private static final int WARMUP_ITERATIONS = 50;
+    private static final int ITERATIONS = 500;
+    private static final int FRAMES = 600;
+    private static final int FRAMES_PER_BLOCK = 30;
+
+    private String mName;
+
+    @Override
+    public Statement apply(final Statement base, final Description description) {
+        mName = description.getTestClass().getSimpleName() + "." + description.getMethodName();
+        return base;
+    }
+
+    /**
+     * Measure a block. The block is called on the current thread.
+     */
+    @SuppressWarnings("deprecation")
+    public void measure(Runnable block) {
+        warmUp(block);
+
+        long[] durations = new long[ITERATIONS];
+        Debug.resetThreadAllocCount();
+        Debug.startAllocCounting();
+        for (int i = 0; i < ITERATIONS; ++i) {
+            long start = System.nanoTime();
+            block.run();
+            durations[i] = System.nanoTime() - start;
+        }
+        Debug.stopAllocCounting();
+        int allocations = Debug.getThreadAllocCount();
+
+        Arrays.sort(durations);
+        report(durations[0], durations[ITERATIONS / 2], (double) allocations / ITERATIONS);
+    }
+
+    /**
+     * Count the allocations of a block once it has been warmed up. The block is called
+     * {@value #ITERATIONS} times on the current thread.
+     *
+     * @return The number of objects allocated by the {@value #ITERATIONS} calls.
+     */
+    @SuppressWarnings("deprecation")
+    public int countAllocations(Runnable block) {
+        warmUp(block);
+
+        Debug.resetThreadAllocCount();
+        Debug.startAllocCounting();
+        for (int i = 0; i < ITERATIONS; ++i) {
+            block.run();
+        }
+        Debug.stopAllocCounting();
+        return Debug.getThreadAllocCount();
+    }
+
+    private static void warmUp(Runnable block) {
+        for (int i = 0; i < WARMUP_ITERATIONS; ++i) {
+            block.run();
+        }
+    }
+
+    /**
+     * Measure the frames drawn while a block is called every {@value #FRAMES_PER_BLOCK}
+     * frames. The block is called on the main thread, the current thread waits for the
+     * {@value #FRAMES} frames.
+     */
+    public void measureFrames(Runnable block) throws InterruptedException {
+        final FrameRecorder recorder = new FrameRecorder(block);
+        InstrumentationRegistry.getInstrumentation().runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                Choreographer.getInstance().postFrameCallback(recorder);
+            }
+        });
+        recorder.mDone.await();
+
+        long[] intervals = recorder.mIntervals;
+        Arrays.sort(intervals);
+        reportFrames(intervals[FRAMES / 2], intervals[FRAMES * 9 / 10],
+                intervals[FRAMES * 99 / 100]);
+    }
+
+    private void reportFrames(long medianNs, long p90Ns, long p99Ns) {
+        Bundle status = new Bundle();
+        status.putLong(mName + "_frame_median_ns", medianNs);
+        status.putLong(mName + "_frame_p90_ns", p90Ns);
+        status.putLong(mName + "_frame_p99_ns", p99Ns);
+        InstrumentationRegistry.getInstrumentation().sendStatus(REPORT_KEY, status);
+        Log.i(TAG, mName + ": frame median " + medianNs + " ns, p90 " + p90Ns + " ns, p99 "
+                + p99Ns + " ns");
+    }
+
+    /**
+     * Records the interval between two frames and calls the block periodically.
+     */
+    private static final class FrameRecorder implements Choreographer.FrameCallback {
+        private final Runnable mBlock;
+        private final long[] mIntervals = new long[FRAMES];
+        private final CountDownLatch mDone = new CountDownLatch(1);
+        private long mLastFrameNanos;
+        private int mFrame = -1;
+
+        private FrameRecorder(Runnable block) {
+            mBlock = block;
+        }
+
+        @Override
+        public void doFrame(long frameTimeNanos) {
+            if (mFrame >= 0) {
+                mIntervals[mFrame] = frameTimeNanos - mLastFrameNanos;
+            }
+            mLastFrameNanos = frameTimeNanos;
+            if (++mFrame == FRAMES) {
+                mDone.countDown();
+                return;
+            }
+            if (mFrame % FRAMES_PER_BLOCK == 0) {
+                mBlock.run();
+            }
+            Choreographer.getInstance().postFrameCallback(this);
+        }
+    }
+
+    private void report(long minNs, long medianNs, double allocationsPerIteration) {
+        Bundle status = new Bundle();
+        status.putLong(mName + "_min_ns", minNs);
+        status.putLong(mName + "_median_ns", medianNs);
+        status.putDouble(mName + "_allocations", allocationsPerIteration);
+        InstrumentationRegistry.getInstrumentation().sendStatus(REPORT_KEY, status);
+        Log.i(TAG, mName + ": min " + minNs + " ns, median " + medianNs + " ns, "
+                + allocationsPerIteration + " allocations");
+    }
+}
@@ -0,0 +1,196 @@
+package com.geronimostudios.coffeescene.benchmark;
+
+import android.animation.AnimatorListenerAdapter;
+import android.animation.TimeInterpolator;
+import android.support.test.annotation.UiThreadTest;
+import android.support.test.rule.ActivityTestRule;
+import android.support.test.runner.AndroidJUnit4;
+import android.view.View;
+import android.view.ViewGroup;
+import android.view.animation.AccelerateDecelerateInterpolator;
+
+import com.geronimostudios.coffeescene.R;
+import com.geronimostudios.coffeescene.SceneController;
+import com.geronimostudios.coffeescene.SceneManager;
+import com.geronimostudios.coffeescene.animations.AnimationAdapter;
+import com.geronimostudios.coffeescene.animations.FadeAnimationAdapter;
+import com.geronimostudios.coffeescene.animations.SceneAnimations;
+import com.geronimostudios.coffeescene.annotations.Scene;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * <p>A switch without animation must not allocate once the views of the scenes
+ * have been used: no iterator, listener, event or boxed scene id per switch.</p>
+ *
+ * <p>An animated switch allocates in the {@link android.view.ViewPropertyAnimator} of
+ * each view: the library must not allocate more than the same animations started
+ * without it, and the animation listener of a view is created once.</p>
+ */
+@RunWith(AndroidJUnit4.class)
+public class SceneAllocationTest {
+
+    @Rule
+    public final ActivityTestRule<BenchmarkActivity> mActivityRule =
+            new ActivityTestRule<>(BenchmarkActivity.class);
+
+    @Rule
+    public final BenchmarkRule mBenchmarkRule = new BenchmarkRule();
+
+    @Test
+    @UiThreadTest
+    public void switchNoAnimation() {
+        assertNoAllocation(SceneAnimations.NO_ANIMATION, true);
+    }
+
+    @Test
+    @UiThreadTest
+    public void switchFadeWithoutAnimation() {
+        assertNoAllocation(SceneAnimations.FADE, false);
+    }
+
+    @Test
+    @UiThreadTest
+    public void switchTranslateXWithoutAnimation() {
+        assertNoAllocation(SceneAnimations.TRANSLATE_X, false);
+    }
+
+    @Test
+    @UiThreadTest
+    public void controllerSwitchNoAnimation() {
+        BenchmarkActivity activity = mActivityRule.getActivity();
+        SceneManager.create(activity, SceneAnimations.NO_ANIMATION);
+        final SceneController controller = SceneManager.controller(activity);
+        try {
+            int allocations = mBenchmarkRule.countAllocations(new Runnable() {
+                private int mScene = Scene.MAIN;
+
+                @Override
+                public void run() {
+                    mScene = mScene == Scene.MAIN ? Scene.SPINNER : Scene.MAIN;
+                    controller.scene(mScene);
+                }
+            });
+            assertEquals(0, allocations);
+        } finally {
+            controller.release();
+        }
+    }
+
+    @Test
+    @UiThreadTest
+    public void switchFade() {
+        assertAnimationAllocations(SceneAnimations.FADE, false);
+    }
+
+    @Test
+    @UiThreadTest
+    public void switchAlphaEnable() {
+        assertAnimationAllocations(SceneAnimations.ALPHA_ENABLE, true);
+    }
+
+    /**
+     * Switch back and forth between two scenes with a fade, then start the same
+     * animations on the same views directly, and compare the allocations.
+     *
+     * @param adapter A fade with the default duration and interpolator.
+     * @param toggleEnabled true if the adapter calls {@link View#setEnabled(boolean)}.
+     */
+    private void assertAnimationAllocations(AnimationAdapter adapter,
+                                            final boolean toggleEnabled) {
+        final BenchmarkActivity activity = mActivityRule.getActivity();
+        ViewGroup root = SceneManager.create(activity, adapter);
+        try {
+            // The views are added in the order of the scenes of the activity
+            final View main = root.getChildAt(0);
+            final View spinner = root.getChildAt(1);
+            SceneManager.scene(activity, Scene.SPINNER, true);
+            SceneManager.scene(activity, Scene.MAIN, true);
+            Object mainListener = main.getTag(R.id.coffeescene_animation_listener);
+            Object spinnerListener = spinner.getTag(R.id.coffeescene_animation_listener);
+            assertNotNull(mainListener);
+            assertNotNull(spinnerListener);
+
+            int switchAllocations = mBenchmarkRule.countAllocations(new Runnable() {
+                private int mScene = Scene.MAIN;
+
+                @Override
+                public void run() {
+                    mScene = mScene == Scene.MAIN ? Scene.SPINNER : Scene.MAIN;
+                    SceneManager.scene(activity, mScene, true);
+                }
+            });
+            assertSame(mainListener, main.getTag(R.id.coffeescene_animation_listener));
+            assertSame(spinnerListener, spinner.getTag(R.id.coffeescene_animation_listener));
+
+            final AnimatorListenerAdapter listener = new AnimatorListenerAdapter() {
+            };
+            final TimeInterpolator interpolator = new AccelerateDecelerateInterpolator();
+            int animationAllocations = mBenchmarkRule.countAllocations(new Runnable() {
+                private boolean mShowMain = true;
+
+                @Override
+                public void run() {
+                    mShowMain = !mShowMain;
+                    fade(main, mShowMain, toggleEnabled, interpolator, listener);
+                    fade(spinner, !mShowMain, toggleEnabled, interpolator, listener);
+                }
+            });
+            assertTrue("switches: " + switchAllocations + ", animations: "
+                    + animationAllocations, switchAllocations <= animationAllocations);
+        } finally {
+            SceneManager.release(activity);
+        }
+    }
+
+    /**
+     * The calls of the fade adapters on a view, without the library.
+     */
+    private static void fade(View view,
+                             boolean show,
+                             boolean toggleEnabled,
+                             TimeInterpolator interpolator,
+                             AnimatorListenerAdapter listener) {
+        view.animate().cancel();
+        if (show) {
+            view.setVisibility(View.VISIBLE);
+            if (toggleEnabled) {
+                view.setEnabled(true);
+            }
+        }
+        view.animate()
+                .alpha(show ? 1f : 0f)
+                .setDuration(FadeAnimationAdapter.DEFAULT_DURATION)
+                .setInterpolator(interpolator)
+                .setListener(listener);
+    }
+
+    /**
+     * Switch between two scenes of the activity and check that nothing is allocated.
+     */
+    private void assertNoAllocation(AnimationAdapter adapter, final boolean animate) {
+        final BenchmarkActivity activity = mActivityRule.getActivity();
+        SceneManager.create(activity, adapter);
+        try {
+            int allocations = mBenchmarkRule.countAllocations(new Runnable() {
+                private int mScene = Scene.MAIN;
+
+                @Override
+                public void run() {
+                    mScene = mScene == Scene.MAIN ? Scene.SPINNER : Scene.MAIN;
+                    SceneManager.scene(activity, mScene, animate);
+                }
+            });
+            assertEquals(0, allocations);
+        } finally {
+            SceneManager.release(activity);
+        }
+    }
+}
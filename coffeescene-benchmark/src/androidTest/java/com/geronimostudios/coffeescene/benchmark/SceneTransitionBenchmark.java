@@ -0,0 +1,172 @@
+package com.geronimostudios.coffeescene.benchmark;
+
+import android.support.test.InstrumentationRegistry;
+import android.support.test.annotation.UiThreadTest;
+import android.support.test.rule.ActivityTestRule;
+import android.support.test.runner.AndroidJUnit4;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.FrameLayout;
+import android.widget.LinearLayout;
+import android.widget.TextView;
+
+import com.geronimostudios.coffeescene.SceneCreator;
+import com.geronimostudios.coffeescene.SceneManager;
+import com.geronimostudios.coffeescene.animations.AnimationAdapter;
+import com.geronimostudios.coffeescene.animations.FadeAnimationAdapter;
+import com.geronimostudios.coffeescene.animations.SceneAnimations;
+import com.geronimostudios.coffeescene.annotations.Scene;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+/**
+ * Cost of the scene creation and of the scene switches on a device.
+ * The frame* benchmarks measure the frames drawn during the animations.
+ */
+@RunWith(AndroidJUnit4.class)
+public class SceneTransitionBenchmark {
+    private static final int HEAVY_SCENE_CHILDREN = 200;
+
+    @Rule
+    public final ActivityTestRule<BenchmarkActivity> mActivityRule =
+            new ActivityTestRule<>(BenchmarkActivity.class);
+
+    @Rule
+    public final BenchmarkRule mBenchmarkRule = new BenchmarkRule();
+
+    @Test
+    @UiThreadTest
+    public void createActivity() {
+        final BenchmarkActivity activity = mActivityRule.getActivity();
+        mBenchmarkRule.measure(new Runnable() {
+            @Override
+            public void run() {
+                SceneManager.create(activity);
+                SceneManager.release(activity);
+            }
+        });
+    }
+
+    @Test
+    @UiThreadTest
+    public void switchFade() {
+        measureSwitch(SceneAnimations.FADE);
+    }
+
+    @Test
+    @UiThreadTest
+    public void switchAlphaEnable() {
+        measureSwitch(SceneAnimations.ALPHA_ENABLE);
+    }
+
+    @Test
+    @UiThreadTest
+    public void switchTranslateX() {
+        measureSwitch(SceneAnimations.TRANSLATE_X);
+    }
+
+    @Test
+    @UiThreadTest
+    public void switchNoAnimation() {
+        measureSwitch(SceneAnimations.NO_ANIMATION);
+    }
+
+    @Test
+    public void frameFade() throws InterruptedException {
+        measureFrames(SceneAnimations.FADE);
+    }
+
+    @Test
+    public void frameFadeWithLayer() throws InterruptedException {
+        measureFrames(new FadeAnimationAdapter.Builder().hardwareLayer(true).build());
+    }
+
+    @Test
+    public void frameAlphaEnable() throws InterruptedException {
+        measureFrames(SceneAnimations.ALPHA_ENABLE);
+    }
+
+    @Test
+    public void frameAlphaEnableWithLayer() throws InterruptedException {
+        measureFrames(new FadeAnimationAdapter.Builder()
+                .hiddenVisibility(View.INVISIBLE)
+                .toggleEnabled(true)
+                .hardwareLayer(true)
+                .build());
+    }
+
+    /**
+     * Measure the frames while two heavy scenes fade in and out.
+     */
+    private void measureFrames(final AnimationAdapter adapter) throws InterruptedException {
+        final BenchmarkActivity activity = mActivityRule.getActivity();
+        final FrameLayout root = new FrameLayout(activity);
+        InstrumentationRegistry.getInstrumentation().runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                activity.setContentView(root);
+                SceneManager.create(SceneCreator.with(root)
+                        .animation(adapter)
+                        .add(Scene.MAIN, addHeavyScene(root))
+                        .add(Scene.SPINNER, addHeavyScene(root))
+                        .first(Scene.MAIN));
+            }
+        });
+        try {
+            mBenchmarkRule.measureFrames(new Runnable() {
+                private int mScene = Scene.MAIN;
+
+                @Override
+                public void run() {
+                    mScene = mScene == Scene.MAIN ? Scene.SPINNER : Scene.MAIN;
+                    SceneManager.scene(root, mScene);
+                }
+            });
+        } finally {
+            InstrumentationRegistry.getInstrumentation().runOnMainSync(new Runnable() {
+                @Override
+                public void run() {
+                    SceneManager.release(root);
+                }
+            });
+        }
+    }
+
+    /**
+     * @return A scene with many children, expensive to redraw.
+     */
+    private static View addHeavyScene(ViewGroup root) {
+        LinearLayout scene = new LinearLayout(root.getContext());
+        scene.setOrientation(LinearLayout.VERTICAL);
+        for (int i = 0; i < HEAVY_SCENE_CHILDREN; ++i) {
+            TextView child = new TextView(root.getContext());
+            child.setText("CoffeeScene " + i);
+            scene.addView(child);
+        }
+        root.addView(scene);
+        return scene;
+    }
+
+    /**
+     * Measure an animated switch between two scenes.
+     */
+    private void measureSwitch(AnimationAdapter adapter) {
+        final BenchmarkActivity activity = mActivityRule.getActivity();
+        SceneManager.create(activity, adapter);
+        try {
+            mBenchmarkRule.measure(new Runnable() {
+                private int mScene = Scene.MAIN;
+
+                @Override
+                public void run() {
+                    mScene = mScene == Scene.MAIN ? Scene.SPINNER : Scene.MAIN;
+                    SceneManager.scene(activity, mScene);
+                }
+            });
+        } finally {
+            SceneManager.release(activity);
+        }
+    }
+}
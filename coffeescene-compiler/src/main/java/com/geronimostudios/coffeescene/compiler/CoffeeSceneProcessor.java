@@ -0,0 +1,220 @@
+package com.geronimostudios.coffeescene.compiler;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.Messager;
+import javax.annotation.processing.RoundEnvironment;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.util.Elements;
+import javax.tools.Diagnostic;
+import javax.tools.JavaFileObject;
+
+/**
+ * <p>Generates a {@code <ClassName>_SceneBinding} for each class annotated with
+ * {@code @CoffeeScene}. The binding exposes the scenes as constants so
+ * {@code SceneManager} does not have to read the annotations by reflection.</p>
+ *
+ * <p>The annotations are read through their mirrors: this module does not depend
+ * on the Android library.</p>
+ */
+public final class CoffeeSceneProcessor extends AbstractProcessor {
+    static final String COFFEE_SCENE = "com.geronimostudios.coffeescene.annotations.CoffeeScene";
+    static final String SCENE_BINDING = "com.geronimostudios.coffeescene.SceneBinding";
+    static final String BINDING_SUFFIX = "_SceneBinding";
+
+    @Override
+    public Set<String> getSupportedAnnotationTypes() {
+        return Collections.singleton(COFFEE_SCENE);
+    }
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        Elements elements = processingEnv.getElementUtils();
+        TypeElement coffeeScene = elements.getTypeElement(COFFEE_SCENE);
+        if (coffeeScene == null) {
+            return false;
+        }
+        for (Element element : roundEnv.getElementsAnnotatedWith(coffeeScene)) {
+            if (element.getKind() != ElementKind.CLASS) {
+                error(element, "@CoffeeScene can only be used on a class");
+                continue;
+            }
+            AnnotationMirror mirror = findMirror(element, coffeeScene);
+            if (mirror != null) {
+                generateBinding((TypeElement) element, mirror);
+            }
+        }
+        return true;
+    }
+
+    private void generateBinding(TypeElement type, AnnotationMirror mirror) {
+        Map<? extends ExecutableElement, ? extends AnnotationValue> values =
+                processingEnv.getElementUtils().getElementValuesWithDefaults(mirror);
+        List<?> sceneMirrors = (List<?>) valueOf(values, "value");
+        int first = (Integer) valueOf(values, "first");
+        boolean lazy = (Boolean) valueOf(values, "lazy");
+        boolean async = (Boolean) valueOf(values, "async");
+
+        if (sceneMirrors.isEmpty()) {
+            error(type, "@CoffeeScene requires at least one @Scene");
+            return;
+        }
+        int[] scenes = new int[sceneMirrors.size()];
+        int[] layouts = new int[sceneMirrors.size()];
+        for (int i = 0; i < scenes.length; ++i) {
+            AnnotationMirror scene =
+                    (AnnotationMirror) ((AnnotationValue) sceneMirrors.get(i)).getValue();
+            Map<? extends ExecutableElement, ? extends AnnotationValue> sceneValues =
+                    processingEnv.getElementUtils().getElementValuesWithDefaults(scene);
+            scenes[i] = (Integer) valueOf(sceneValues, "scene");
+            layouts[i] = (Integer) valueOf(sceneValues, "layout");
+            if (scenes[i] == Integer.MIN_VALUE) {
+                error(type, "Invalid scene id, do not use Integer.MIN_VALUE.");
+                return;
+            }
+        }
+
+        PackageElement packageElement = processingEnv.getElementUtils().getPackageOf(type);
+        String packageName = packageElement.isUnnamed()
+                ? "" : packageElement.getQualifiedName().toString();
+        String bindingName = flatName(type) + BINDING_SUFFIX;
+        try {
+            JavaFileObject file = processingEnv.getFiler().createSourceFile(
+                    packageName.isEmpty() ? bindingName : packageName + "." + bindingName,
+                    type
+            );
+            try (Writer writer = file.openWriter()) {
+                writer.write(render(packageName, bindingName, type, scenes, layouts,
+                        validFirstScene(first, scenes), lazy, async));
+            }
+        } catch (IOException e) {
+            error(type, "Unable to write " + bindingName + ": " + e.getMessage());
+        }
+    }
+
+    private static String render(String packageName,
+                                 String bindingName,
+                                 TypeElement type,
+                                 int[] scenes,
+                                 int[] layouts,
+                                 int first,
+                                 boolean lazy,
+                                 boolean async) {
+        StringBuilder sb = new StringBuilder();
+        if (!packageName.isEmpty()) {
+            sb.append("package ").append(packageName).append(";\n\n");
+        }
+        sb.append("/**\n")
+                .append(" * Generated by the coffeescene-compiler for {@link ")
+                .append(type.getQualifiedName()).append("}, do not edit.\n")
+                .append(" */\n")
+                .append("public final class ").append(bindingName)
+                .append(" implements ").append(SCENE_BINDING).append(" {\n")
+                .append("    public static final int FIRST = ").append(hex(first)).append(";\n")
+                .append("    public static final boolean LAZY = ").append(lazy).append(";\n")
+                .append("    public static final boolean ASYNC = ").append(async).append(";\n")
+                .append("    private static final int[] SCENES = ")
+                .append(arrayOf(scenes)).append(";\n")
+                .append("    private static final int[] LAYOUTS = ")
+                .append(arrayOf(layouts)).append(";\n\n");
+        appendMethod(sb, "int[]", "scenes", "SCENES");
+        appendMethod(sb, "int[]", "layouts", "LAYOUTS");
+        appendMethod(sb, "int", "first", "FIRST");
+        appendMethod(sb, "boolean", "lazy", "LAZY");
+        appendMethod(sb, "boolean", "async", "ASYNC");
+        sb.setLength(sb.length() - 1);
+        sb.append("}\n");
+        return sb.toString();
+    }
+
+    private static void appendMethod(StringBuilder sb, String type, String name, String field) {
+        sb.append("    @Override\n")
+                .append("    public ").append(type).append(' ').append(name).append("() {\n")
+                .append("        return ").append(field).append(";\n")
+                .append("    }\n\n");
+    }
+
+    private static String arrayOf(int[] values) {
+        StringBuilder sb = new StringBuilder("{");
+        for (int i = 0; i < values.length; ++i) {
+            if (i > 0) {
+                sb.append(", ");
+            }
+            sb.append(hex(values[i]));
+        }
+        return sb.append('}').toString();
+    }
+
+    private static String hex(int value) {
+        return "0x" + Integer.toHexString(value);
+    }
+
+    /**
+     * Same rule as the reflection: an unknown first scene falls back to the first declared.
+     */
+    private static int validFirstScene(int first, int[] scenes) {
+        for (int scene : scenes) {
+            if (scene == first) {
+                return first;
+            }
+        }
+        return scenes[0];
+    }
+
+    /**
+     * @return The name of the class without its package, nested classes are joined
+     * with '_'. Ex: Outer.Inner -> Outer_Inner
+     */
+    private static String flatName(TypeElement type) {
+        String name = type.getSimpleName().toString();
+        Element enclosing = type.getEnclosingElement();
+        while (enclosing instanceof TypeElement) {
+            name = enclosing.getSimpleName() + "_" + name;
+            enclosing = enclosing.getEnclosingElement();
+        }
+        return name;
+    }
+
+    private static Object valueOf(Map<? extends ExecutableElement, ? extends AnnotationValue> values,
+                                  String name) {
+        for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry
+                : values.entrySet()) {
+            if (entry.getKey().getSimpleName().contentEquals(name)) {
+                return entry.getValue().getValue();
+            }
+        }
+        throw new IllegalStateException("Missing annotation value " + name);
+    }
+
+    private static AnnotationMirror findMirror(Element element, TypeElement annotation) {
+        for (AnnotationMirror mirror : element.getAnnotationMirrors()) {
+            if (mirror.getAnnotationType().asElement().equals(annotation)) {
+                return mirror;
+            }
+        }
+        return null;
+    }
+
+    private void error(Element element, String message) {
+        Messager messager = processingEnv.getMessager();
+        messager.printMessage(Diagnostic.Kind.ERROR, message, element);
+    }
+}
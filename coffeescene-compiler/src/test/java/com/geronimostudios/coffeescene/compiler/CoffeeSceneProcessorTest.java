@@ -0,0 +1,228 @@
+package com.geronimostudios.coffeescene.compiler;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Compiles annotated classes with the processor and loads the generated bindings.
+ * The annotations and {@code SceneBinding} are declared here: this module does not
+ * depend on the Android library.
+ */
+public class CoffeeSceneProcessorTest {
+    private static final String SCENE = "package com.geronimostudios.coffeescene.annotations;\n"
+            + "public @interface Scene {\n"
+            + "    int MAIN = 0x420;\n"
+            + "    int SPINNER = 0x421;\n"
+            + "    int PLACEHOLDER = 0x423;\n"
+            + "    int scene();\n"
+            + "    int layout();\n"
+            + "}\n";
+    private static final String COFFEE_SCENE =
+            "package com.geronimostudios.coffeescene.annotations;\n"
+            + "public @interface CoffeeScene {\n"
+            + "    Scene[] value();\n"
+            + "    int first() default Scene.MAIN;\n"
+            + "    boolean lazy() default false;\n"
+            + "    boolean async() default false;\n"
+            + "}\n";
+    private static final String SCENE_BINDING = "package com.geronimostudios.coffeescene;\n"
+            + "public interface SceneBinding {\n"
+            + "    int[] scenes();\n"
+            + "    int[] layouts();\n"
+            + "    int first();\n"
+            + "    boolean lazy();\n"
+            + "    boolean async();\n"
+            + "}\n";
+    private static final String IMPORTS = "package com.example;\n"
+            + "import com.geronimostudios.coffeescene.annotations.CoffeeScene;\n"
+            + "import com.geronimostudios.coffeescene.annotations.Scene;\n";
+
+    private File mOutput;
+    private DiagnosticCollector<JavaFileObject> mDiagnostics;
+
+    @Before
+    public void setUp() throws IOException {
+        mOutput = File.createTempFile("coffeescene", "");
+        if (!mOutput.delete() || !mOutput.mkdir()) {
+            throw new IOException("Unable to create " + mOutput);
+        }
+        mDiagnostics = new DiagnosticCollector<>();
+    }
+
+    @After
+    public void tearDown() {
+        delete(mOutput);
+    }
+
+    @Test
+    public void generatesTheBinding() throws Exception {
+        assertTrue(compile("com.example.Home", IMPORTS
+                + "@CoffeeScene(value = {\n"
+                + "        @Scene(scene = Scene.MAIN, layout = 0x7f010001),\n"
+                + "        @Scene(scene = Scene.SPINNER, layout = 0x7f010002),\n"
+                + "        @Scene(scene = Scene.PLACEHOLDER, layout = 0x7f010003)\n"
+                + "}, first = Scene.SPINNER, lazy = true, async = true)\n"
+                + "public class Home {}\n"));
+
+        Class<?> binding = load("com.example.Home_SceneBinding");
+        assertArrayEquals(new int[] {0x420, 0x421, 0x423}, (int[]) call(binding, "scenes"));
+        assertArrayEquals(new int[] {0x7f010001, 0x7f010002, 0x7f010003},
+                (int[]) call(binding, "layouts"));
+        assertEquals(0x421, call(binding, "first"));
+        assertEquals(true, call(binding, "lazy"));
+        assertEquals(true, call(binding, "async"));
+        assertEquals(0x421, binding.getField("FIRST").getInt(null));
+    }
+
+    @Test
+    public void usesTheDefaultValues() throws Exception {
+        assertTrue(compile("com.example.Home", IMPORTS
+                + "@CoffeeScene({\n"
+                + "        @Scene(scene = Scene.SPINNER, layout = 1),\n"
+                + "        @Scene(scene = Scene.MAIN, layout = 2)\n"
+                + "})\n"
+                + "public class Home {}\n"));
+
+        Class<?> binding = load("com.example.Home_SceneBinding");
+        assertEquals(0x420, call(binding, "first"));
+        assertEquals(false, call(binding, "lazy"));
+        assertEquals(false, call(binding, "async"));
+    }
+
+    @Test
+    public void fallsBackToTheFirstDeclaredScene() throws Exception {
+        assertTrue(compile("com.example.Home", IMPORTS
+                + "@CoffeeScene(value = {\n"
+                + "        @Scene(scene = Scene.SPINNER, layout = 1),\n"
+                + "        @Scene(scene = Scene.PLACEHOLDER, layout = 2)\n"
+                + "}, first = Scene.MAIN)\n"
+                + "public class Home {}\n"));
+
+        assertEquals(0x421, call(load("com.example.Home_SceneBinding"), "first"));
+    }
+
+    @Test
+    public void namesTheBindingOfANestedClass() throws Exception {
+        assertTrue(compile("com.example.Outer", IMPORTS
+                + "public class Outer {\n"
+                + "    @CoffeeScene(@Scene(scene = Scene.MAIN, layout = 1))\n"
+                + "    public static class Inner {}\n"
+                + "}\n"));
+
+        assertArrayEquals(new int[] {0x420},
+                (int[]) call(load("com.example.Outer_Inner_SceneBinding"), "scenes"));
+    }
+
+    @Test
+    public void rejectsAnInterface() {
+        assertFalse(compile("com.example.Home", IMPORTS
+                + "@CoffeeScene(@Scene(scene = Scene.MAIN, layout = 1))\n"
+                + "public interface Home {}\n"));
+        assertError("@CoffeeScene can only be used on a class");
+    }
+
+    @Test
+    public void rejectsAnEmptyListOfScenes() {
+        assertFalse(compile("com.example.Home", IMPORTS
+                + "@CoffeeScene({})\n"
+                + "public class Home {}\n"));
+        assertError("@CoffeeScene requires at least one @Scene");
+    }
+
+    @Test
+    public void rejectsTheMinValueSceneId() {
+        assertFalse(compile("com.example.Home", IMPORTS
+                + "@CoffeeScene(@Scene(scene = Integer.MIN_VALUE, layout = 1))\n"
+                + "public class Home {}\n"));
+        assertError("Invalid scene id, do not use Integer.MIN_VALUE.");
+    }
+
+    /**
+     * Compile a class with the annotations, the generated sources and classes are written
+     * in {@link #mOutput}.
+     *
+     * @return true if the compilation succeeded.
+     */
+    private boolean compile(String className, String source) {
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        StandardJavaFileManager fileManager =
+                compiler.getStandardFileManager(mDiagnostics, null, null);
+        List<JavaFileObject> sources = Arrays.asList(
+                source("com.geronimostudios.coffeescene.annotations.Scene", SCENE),
+                source("com.geronimostudios.coffeescene.annotations.CoffeeScene", COFFEE_SCENE),
+                source("com.geronimostudios.coffeescene.SceneBinding", SCENE_BINDING),
+                source(className, source));
+        List<String> options = Arrays.asList("-d", mOutput.getPath(), "-s", mOutput.getPath());
+        JavaCompiler.CompilationTask task =
+                compiler.getTask(null, fileManager, mDiagnostics, options, null, sources);
+        task.setProcessors(Collections.singletonList(new CoffeeSceneProcessor()));
+        return task.call();
+    }
+
+    private Class<?> load(String className) throws Exception {
+        URLClassLoader loader = new URLClassLoader(new URL[] {mOutput.toURI().toURL()},
+                getClass().getClassLoader());
+        return loader.loadClass(className);
+    }
+
+    private static Object call(Class<?> binding, String method) throws Exception {
+        return binding.getMethod(method).invoke(binding.newInstance());
+    }
+
+    private void assertError(String message) {
+        for (Diagnostic<? extends JavaFileObject> diagnostic : mDiagnostics.getDiagnostics()) {
+            if (diagnostic.getKind() == Diagnostic.Kind.ERROR
+                    && message.equals(diagnostic.getMessage(null))) {
+                return;
+            }
+        }
+        fail("Missing error \"" + message + "\" in " + mDiagnostics.getDiagnostics());
+    }
+
+    private static JavaFileObject source(String className, final String content) {
+        URI uri = URI.create("string:///" + className.replace('.', '/')
+                + JavaFileObject.Kind.SOURCE.extension);
+        return new SimpleJavaFileObject(uri, JavaFileObject.Kind.SOURCE) {
+            @Override
+            public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+                return content;
+            }
+        };
+    }
+
+    private static void delete(File file) {
+        File[] children = file.listFiles();
+        if (children != null) {
+            for (File child : children) {
+                delete(child);
+            }
+        }
+        if (!file.delete()) {
+            file.deleteOnExit();
+        }
+    }
+}
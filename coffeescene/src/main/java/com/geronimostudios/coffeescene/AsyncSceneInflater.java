@@ -0,0 +1,117 @@
+package com.geronimostudios.coffeescene;
+
+import android.content.Context;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.support.v4.view.AsyncLayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+
+import java.util.ArrayDeque;
+import java.util.Iterator;
+
+/**
+ * <p>Inflates the lazy scenes of every holder in background, one layout at a time.</p>
+ *
+ * <p>The thread of {@link AsyncLayoutInflater} is shared by the whole application and its
+ * queue blocks the main thread once 10 requests are pending, ex: a list whose rows have
+ * several lazy scenes. The requests are queued here instead and sent one by one.
+ * A scene waiting for a switch is inflated first.</p>
+ *
+ * <p>The inflater is dropped once the queue is empty, it does not keep a context alive.
+ * Must be used from the main thread.</p>
+ */
+final class AsyncSceneInflater implements AsyncLayoutInflater.OnInflateFinishedListener {
+    private final ArrayDeque<Request> mRequests = new ArrayDeque<>();
+    private @Nullable Request mRunning;
+    private @Nullable AsyncLayoutInflater mInflater;
+    private @Nullable Context mContext;
+
+    /**
+     * Queue the inflation of a lazy scene, see {@link ScenesMeta#needsAsyncInflation(int)}.
+     *
+     * @param urgent true to inflate it before the other queued scenes.
+     */
+    void request(@NonNull ScenesMeta meta, int lazyIndex, boolean urgent) {
+        if (mRunning != null && mRunning.mMeta == meta && mRunning.mLazyIndex == lazyIndex) {
+            return; // already being inflated
+        }
+        Request request = find(meta, lazyIndex);
+        if (request == null) {
+            request = new Request(meta, lazyIndex);
+        } else if (urgent) {
+            mRequests.remove(request);
+        } else {
+            return; // already queued
+        }
+        if (urgent) {
+            mRequests.addFirst(request);
+        } else {
+            mRequests.addLast(request);
+        }
+        next();
+    }
+
+    /**
+     * Drop the queued requests of released scenes.
+     */
+    void cancel(@NonNull ScenesMeta meta) {
+        for (Iterator<Request> it = mRequests.iterator(); it.hasNext();) {
+            if (it.next().mMeta == meta) {
+                it.remove();
+            }
+        }
+    }
+
+    @Override
+    public void onInflateFinished(@NonNull View view, int resid, @Nullable ViewGroup parent) {
+        Request request = mRunning;
+        mRunning = null;
+        view.setTag(R.id.coffeescene_scene_layout, resid);
+        if (request != null) {
+            request.mMeta.onAsyncInflated(request.mLazyIndex, view);
+        }
+        next();
+    }
+
+    private void next() {
+        while (mRunning == null && !mRequests.isEmpty()) {
+            Request request = mRequests.pollFirst();
+            ViewGroup root = request.mMeta.getRoot();
+            if (root == null || !request.mMeta.needsAsyncInflation(request.mLazyIndex)) {
+                continue; // released, inflated on demand or taken from the pool
+            }
+            Context context = root.getContext();
+            if (mInflater == null || mContext != context) {
+                mInflater = new AsyncLayoutInflater(context);
+                mContext = context;
+            }
+            mRunning = request;
+            mInflater.inflate(request.mMeta.getLazyLayout(request.mLazyIndex), root, this);
+        }
+        if (mRunning == null) {
+            mInflater = null;
+            mContext = null;
+        }
+    }
+
+    @Nullable
+    private Request find(@NonNull ScenesMeta meta, int lazyIndex) {
+        for (Request request : mRequests) {
+            if (request.mMeta == meta && request.mLazyIndex == lazyIndex) {
+                return request;
+            }
+        }
+        return null;
+    }
+
+    private static final class Request {
+        private final @NonNull ScenesMeta mMeta;
+        private final int mLazyIndex;
+
+        Request(@NonNull ScenesMeta meta, int lazyIndex) {
+            mMeta = meta;
+            mLazyIndex = lazyIndex;
+        }
+    }
+}
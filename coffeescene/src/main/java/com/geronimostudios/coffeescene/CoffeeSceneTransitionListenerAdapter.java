@@ -0,0 +1,27 @@
+package com.geronimostudios.coffeescene;
+
+
+/**
+ * This is a dummy implementation of {@link TransitionListener}.
+ * This adapter can be used to avoid to implements of all methods.
+ *
+ * <p>Unlike a {@link CoffeeSceneListenerAdapter}, the animations of the switches are
+ * tracked while it is registered.</p>
+ */
+public class CoffeeSceneTransitionListenerAdapter
+        extends CoffeeSceneListenerAdapter implements TransitionListener {
+    @Override
+    public void onTransitionStarted(int sceneId) {
+        // nothing to do by default
+    }
+
+    @Override
+    public void onTransitionEnded(int sceneId) {
+        // nothing to do by default
+    }
+
+    @Override
+    public void onTransitionCanceled(int sceneId) {
+        // nothing to do by default
+    }
+}
@@ -0,0 +1,77 @@
+package com.geronimostudios.coffeescene;
+
+import android.annotation.TargetApi;
+import android.os.Build;
+import android.os.Handler;
+import android.os.Looper;
+import android.support.annotation.NonNull;
+import android.view.Choreographer;
+
+/**
+ * <p>Run a {@link FrameTask} at the next frame, before the views are laid out.</p>
+ *
+ * <p>Uses a {@link Choreographer} since API 16 and a {@link Handler} on the main
+ * looper before. Must be called from the main thread.</p>
+ */
+final class FrameScheduler {
+    private static final Handler sHandler = new Handler(Looper.getMainLooper());
+
+    private FrameScheduler() {
+        // ignored - not instantiable
+    }
+
+    static void post(@NonNull FrameTask task) {
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN) {
+            ChoreographerScheduler.post(task);
+        } else {
+            sHandler.post(task);
+        }
+    }
+
+    static void cancel(@NonNull FrameTask task) {
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN) {
+            ChoreographerScheduler.cancel(task);
+        } else {
+            sHandler.removeCallbacks(task);
+        }
+    }
+
+    /**
+     * A task that can be posted many times without allocating.
+     */
+    abstract static class FrameTask implements Runnable {
+        /**
+         * The {@link Choreographer.FrameCallback} of this task, created once.
+         * Not typed to keep this class loadable before API 16.
+         */
+        private Object mFrameCallback;
+    }
+
+    @TargetApi(Build.VERSION_CODES.JELLY_BEAN)
+    private static final class ChoreographerScheduler {
+
+        static void post(@NonNull FrameTask task) {
+            Choreographer.getInstance().postFrameCallback(callbackOf(task));
+        }
+
+        static void cancel(@NonNull FrameTask task) {
+            if (task.mFrameCallback != null) {
+                Choreographer.getInstance()
+                        .removeFrameCallback((Choreographer.FrameCallback) task.mFrameCallback);
+            }
+        }
+
+        @NonNull
+        private static Choreographer.FrameCallback callbackOf(@NonNull final FrameTask task) {
+            if (task.mFrameCallback == null) {
+                task.mFrameCallback = new Choreographer.FrameCallback() {
+                    @Override
+                    public void doFrame(long frameTimeNanos) {
+                        task.run();
+                    }
+                };
+            }
+            return (Choreographer.FrameCallback) task.mFrameCallback;
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package com.geronimostudios.coffeescene;
+
+import android.support.annotation.LayoutRes;
+import android.support.annotation.NonNull;
+import android.util.SparseArray;
+
+import com.geronimostudios.coffeescene.animations.AnimationAdapter;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * <p>A {@link MetricsSink} aggregating the durations in {@link LatencyHistogram}:
+ * one per layout for the inflations, one for the switches and one per adapter for the
+ * animations. Recording a sample only allocates the first time a layout or an adapter
+ * is seen.</p>
+ *
+ * <p>Example:
+ * HistogramMetricsSink sink = new HistogramMetricsSink();
+ * SceneManager.setMetricsSink(sink);
+ * ...
+ * long p99 = sink.snapshotSwitches().getValueAtPercentile(99);</p>
+ *
+ * <p>The snapshots are copies: they can be taken and exported from any thread.</p>
+ */
+public final class HistogramMetricsSink implements MetricsSink {
+    private final SparseArray<LatencyHistogram> mInflations = new SparseArray<>();
+    private final LatencyHistogram mSwitches = new LatencyHistogram();
+    private final Map<AnimationAdapter, AdapterMetrics> mAdapters = new IdentityHashMap<>();
+
+    @Override
+    public void onSceneInflated(@LayoutRes int layout, long durationNanos) {
+        LatencyHistogram histogram;
+        synchronized (this) {
+            histogram = mInflations.get(layout);
+            if (histogram == null) {
+                histogram = new LatencyHistogram();
+                mInflations.put(layout, histogram);
+            }
+        }
+        histogram.record(durationNanos);
+    }
+
+    @Override
+    public void onSceneSwitched(int sceneId, long durationNanos) {
+        mSwitches.record(durationNanos);
+    }
+
+    @Override
+    public void onAnimationEnded(@NonNull AnimationAdapter adapter, long durationNanos) {
+        obtainAdapterMetrics(adapter).mAnimations.record(durationNanos);
+    }
+
+    @Override
+    public void onAnimationInterrupted(@NonNull AnimationAdapter adapter) {
+        AdapterMetrics metrics = obtainAdapterMetrics(adapter);
+        synchronized (metrics) {
+            metrics.mInterruptionCount++;
+        }
+    }
+
+    /**
+     * @return A copy of the histogram of the switches.
+     */
+    @NonNull
+    public LatencyHistogram snapshotSwitches() {
+        return mSwitches.snapshot();
+    }
+
+    /**
+     * @return A copy of the histograms of the inflations, keyed by layout.
+     */
+    @NonNull
+    public synchronized SparseArray<LatencyHistogram> snapshotInflations() {
+        SparseArray<LatencyHistogram> snapshot = new SparseArray<>(mInflations.size());
+        for (int i = 0; i < mInflations.size(); ++i) {
+            snapshot.put(mInflations.keyAt(i), mInflations.valueAt(i).snapshot());
+        }
+        return snapshot;
+    }
+
+    /**
+     * @return A copy of the histograms of the animations, keyed by adapter.
+     */
+    @NonNull
+    public synchronized Map<AnimationAdapter, LatencyHistogram> snapshotAnimations() {
+        Map<AnimationAdapter, LatencyHistogram> snapshot = new IdentityHashMap<>();
+        for (Map.Entry<AnimationAdapter, AdapterMetrics> entry : mAdapters.entrySet()) {
+            snapshot.put(entry.getKey(), entry.getValue().mAnimations.snapshot());
+        }
+        return snapshot;
+    }
+
+    /**
+     * @param adapter An adapter.
+     * @return The number of animations of the adapter interrupted by another switch.
+     */
+    public long getInterruptionCount(@NonNull AnimationAdapter adapter) {
+        AdapterMetrics metrics;
+        synchronized (this) {
+            metrics = mAdapters.get(adapter);
+        }
+        if (metrics == null) {
+            return 0;
+        }
+        synchronized (metrics) {
+            return metrics.mInterruptionCount;
+        }
+    }
+
+    /**
+     * Remove every sample, ex: once they have been exported.
+     */
+    public synchronized void reset() {
+        mInflations.clear();
+        mSwitches.reset();
+        mAdapters.clear();
+    }
+
+    @NonNull
+    private synchronized AdapterMetrics obtainAdapterMetrics(@NonNull AnimationAdapter adapter) {
+        AdapterMetrics metrics = mAdapters.get(adapter);
+        if (metrics == null) {
+            metrics = new AdapterMetrics();
+            mAdapters.put(adapter, metrics);
+        }
+        return metrics;
+    }
+
+    private static final class AdapterMetrics {
+        private final LatencyHistogram mAnimations = new LatencyHistogram();
+        private long mInterruptionCount;
+    }
+}
@@ -0,0 +1,161 @@
+package com.geronimostudios.coffeescene;
+
+import android.support.annotation.NonNull;
+
+/**
+ * <p>A histogram of durations in nanoseconds, with a fixed number of buckets:
+ * recording a sample does not allocate.</p>
+ *
+ * <p>Each power of two is split into 8 buckets, the values are known within 12.5%.
+ * The durations longer than {@link #MAX_VALUE} are recorded as {@link #MAX_VALUE}.</p>
+ *
+ * <p>Thread-safe: the samples are recorded on the main thread, the histogram can be
+ * copied with {@link #snapshot()} from another thread to be exported.</p>
+ */
+public final class LatencyHistogram {
+    /**
+     * The longest duration recorded, about 68 seconds.
+     */
+    public static final long MAX_VALUE = (1L << 36) - 1;
+
+    private static final int SUB_BUCKET_BITS = 3;
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+    private static final int BUCKET_COUNT = (36 - SUB_BUCKET_BITS + 1) * SUB_BUCKET_COUNT;
+
+    private final long[] mCounts = new long[BUCKET_COUNT];
+    private long mCount;
+    private long mSum;
+    private long mMin = Long.MAX_VALUE;
+    private long mMax;
+
+    /**
+     * @param nanos A duration in nanoseconds, a negative duration is recorded as 0.
+     */
+    public synchronized void record(long nanos) {
+        long value = nanos < 0 ? 0 : (nanos > MAX_VALUE ? MAX_VALUE : nanos);
+        mCounts[bucketIndex(value)]++;
+        mCount++;
+        mSum += value;
+        if (value < mMin) {
+            mMin = value;
+        }
+        if (value > mMax) {
+            mMax = value;
+        }
+    }
+
+    /**
+     * @return A copy of this histogram.
+     */
+    @NonNull
+    public LatencyHistogram snapshot() {
+        LatencyHistogram snapshot = new LatencyHistogram();
+        snapshot(snapshot);
+        return snapshot;
+    }
+
+    /**
+     * Copy this histogram into another one, without allocating.
+     *
+     * @param into The histogram overwritten with the samples of this one.
+     */
+    public void snapshot(@NonNull LatencyHistogram into) {
+        if (into == this) {
+            return;
+        }
+        synchronized (this) {
+            synchronized (into) {
+                System.arraycopy(mCounts, 0, into.mCounts, 0, BUCKET_COUNT);
+                into.mCount = mCount;
+                into.mSum = mSum;
+                into.mMin = mMin;
+                into.mMax = mMax;
+            }
+        }
+    }
+
+    /**
+     * Remove every sample.
+     */
+    public synchronized void reset() {
+        for (int i = 0; i < BUCKET_COUNT; ++i) {
+            mCounts[i] = 0;
+        }
+        mCount = 0;
+        mSum = 0;
+        mMin = Long.MAX_VALUE;
+        mMax = 0;
+    }
+
+    /**
+     * @return The number of samples.
+     */
+    public synchronized long getCount() {
+        return mCount;
+    }
+
+    /**
+     * @return The shortest duration in nanoseconds, 0 if there is no sample.
+     */
+    public synchronized long getMin() {
+        return mCount == 0 ? 0 : mMin;
+    }
+
+    /**
+     * @return The longest duration in nanoseconds, 0 if there is no sample.
+     */
+    public synchronized long getMax() {
+        return mMax;
+    }
+
+    /**
+     * @return The mean duration in nanoseconds, 0 if there is no sample.
+     */
+    public synchronized long getMean() {
+        return mCount == 0 ? 0 : mSum / mCount;
+    }
+
+    /**
+     * @param percentile A percentile between 0 and 100, ex: 99 for the p99.
+     * @return The highest duration of the bucket of the percentile, in nanoseconds.
+     * 0 if there is no sample.
+     */
+    public synchronized long getValueAtPercentile(double percentile) {
+        if (percentile < 0 || percentile > 100) {
+            throw new RuntimeException("Invalid percentile: " + percentile);
+        }
+        if (mCount == 0) {
+            return 0;
+        }
+        long rank = (long) Math.ceil(percentile / 100 * mCount);
+        if (rank < 1) {
+            rank = 1;
+        }
+        long seen = 0;
+        for (int i = 0; i < BUCKET_COUNT; ++i) {
+            seen += mCounts[i];
+            if (seen >= rank) {
+                return Math.min(Math.max(bucketHighestValue(i), mMin), mMax);
+            }
+        }
+        return mMax;
+    }
+
+    private static int bucketIndex(long value) {
+        if (value < SUB_BUCKET_COUNT) {
+            return (int) value;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int shift = exponent - SUB_BUCKET_BITS;
+        return (shift + 1) * SUB_BUCKET_COUNT + (int) ((value >>> shift) & (SUB_BUCKET_COUNT - 1));
+    }
+
+    private static long bucketHighestValue(int index) {
+        if (index < SUB_BUCKET_COUNT) {
+            return index;
+        }
+        int shift = index / SUB_BUCKET_COUNT - 1;
+        long lowest = (long) (SUB_BUCKET_COUNT + index % SUB_BUCKET_COUNT) << shift;
+        return lowest + (1L << shift) - 1;
+    }
+}
@@ -14,16 +14,16 @@ public interface Listener {
     void onSceneChanged(int sceneId);
 
     /**
-     * This method is called when a scene is hidden.
+     * This method is called when the current scene is hidden by a switch.
      *
-     * @param sceneId the new scene that is has been hidden.
+     * @param sceneId the scene that has been hidden.
      */
     void onSceneHidden(int sceneId);
 
     /**
      * This method is called when a scene is displayed.
      *
-     * @param sceneId the new scene that is has been displayed.
+     * @param sceneId the scene that has been displayed.
      */
     void onSceneDisplayed(int sceneId);
 }
\ No newline at end of file
@@ -0,0 +1,156 @@
+package com.geronimostudios.coffeescene;
+
+import android.support.annotation.NonNull;
+
+import java.util.concurrent.Executor;
+
+/**
+ * <p>Delivers the {@link Listener} events of one scenes holder on an {@link Executor}.</p>
+ *
+ * <p>The events are delivered in order, one at a time, even if the executor runs its tasks
+ * concurrently: a single task drains the queue. The listeners are captured when the event
+ * is queued, a listener removed afterwards still receives it.</p>
+ *
+ * <p>The executor can be replaced while events are pending, they keep their order.
+ * A listener that throws does not stop the queue: the next events are still delivered.</p>
+ */
+final class ListenerQueue implements Runnable {
+    static final int SCENE_HIDDEN = 0;
+    static final int SCENE_DISPLAYED = 1;
+    static final int SCENE_CHANGED = 2;
+
+    private static final int INITIAL_CAPACITY = 8;
+
+    /**
+     * Runs inline, used once the executor has been removed while events were pending.
+     */
+    static final Executor DIRECT = new Executor() {
+        @Override
+        public void execute(@NonNull Runnable command) {
+            command.run();
+        }
+    };
+
+    private volatile @NonNull Executor mExecutor;
+
+    // Ring buffer of the events, guarded by this
+    private int[] mTypes = new int[INITIAL_CAPACITY];
+    private int[] mSceneIds = new int[INITIAL_CAPACITY];
+    private Listener[][] mListeners = new Listener[INITIAL_CAPACITY][];
+    private int mHead;
+    private int mCount;
+    private boolean mScheduled;
+
+    ListenerQueue(@NonNull Executor executor) {
+        mExecutor = executor;
+    }
+
+    /**
+     * The next drain runs on this executor, a drain in progress delivers the pending events.
+     */
+    void setExecutor(@NonNull Executor executor) {
+        mExecutor = executor;
+    }
+
+    /**
+     * @return true if no event is pending or being delivered.
+     */
+    synchronized boolean isIdle() {
+        return mCount == 0 && !mScheduled;
+    }
+
+    void post(int type, int sceneId, @NonNull Listener[] listeners) {
+        synchronized (this) {
+            if (mCount == mTypes.length) {
+                grow();
+            }
+            int tail = (mHead + mCount) % mTypes.length;
+            mTypes[tail] = type;
+            mSceneIds[tail] = sceneId;
+            mListeners[tail] = listeners;
+            mCount++;
+            if (mScheduled) {
+                return; // delivered by the running task
+            }
+            mScheduled = true;
+        }
+        mExecutor.execute(this);
+    }
+
+    @Override
+    public void run() {
+        boolean drained = false;
+        try {
+            while (true) {
+                int type;
+                int sceneId;
+                Listener[] listeners;
+                synchronized (this) {
+                    if (mCount == 0) {
+                        mScheduled = false;
+                        drained = true;
+                        return;
+                    }
+                    type = mTypes[mHead];
+                    sceneId = mSceneIds[mHead];
+                    listeners = mListeners[mHead];
+                    mListeners[mHead] = null;
+                    mHead = (mHead + 1) % mTypes.length;
+                    mCount--;
+                }
+                deliver(type, sceneId, listeners);
+            }
+        } finally {
+            if (!drained) {
+                onDeliveryFailed();
+            }
+        }
+    }
+
+    /**
+     * A listener has thrown: the next events are delivered by a new task, the exception
+     * is left to the executor.
+     */
+    private void onDeliveryFailed() {
+        synchronized (this) {
+            if (mCount == 0) {
+                mScheduled = false;
+                return;
+            }
+        }
+        mExecutor.execute(this);
+    }
+
+    private static void deliver(int type, int sceneId, @NonNull Listener[] listeners) {
+        for (Listener listener : listeners) {
+            switch (type) {
+                case SCENE_HIDDEN:
+                    listener.onSceneHidden(sceneId);
+                    break;
+                case SCENE_DISPLAYED:
+                    listener.onSceneDisplayed(sceneId);
+                    break;
+                default:
+                    listener.onSceneChanged(sceneId);
+                    break;
+            }
+        }
+    }
+
+    private void grow() {
+        int capacity = mTypes.length * 2;
+        int[] types = new int[capacity];
+        int[] sceneIds = new int[capacity];
+        Listener[][] listeners = new Listener[capacity][];
+        for (int i = 0; i < mCount; ++i) {
+            int index = (mHead + i) % mTypes.length;
+            types[i] = mTypes[index];
+            sceneIds[i] = mSceneIds[index];
+            listeners[i] = mListeners[index];
+        }
+        mTypes = types;
+        mSceneIds = sceneIds;
+        mListeners = listeners;
+        mHead = 0;
+    }
+}
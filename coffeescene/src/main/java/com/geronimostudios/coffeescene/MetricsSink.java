@@ -0,0 +1,49 @@
+package com.geronimostudios.coffeescene;
+
+import android.support.annotation.LayoutRes;
+import android.support.annotation.NonNull;
+
+import com.geronimostudios.coffeescene.animations.AnimationAdapter;
+
+/**
+ * <p>Receives the durations measured by the {@link SceneManager}, see
+ * {@link SceneManager#setMetricsSink(MetricsSink)} and {@link HistogramMetricsSink}.</p>
+ *
+ * <p>The methods are called on the main thread, during a frame: they must not block.</p>
+ */
+public interface MetricsSink {
+
+    /**
+     * A scene layout has been inflated on the main thread. The layouts inflated in
+     * background ({@link com.geronimostudios.coffeescene.annotations.CoffeeScene#async()})
+     * and the views taken from the pool are not measured.
+     *
+     * @param layout the layout, see {@link com.geronimostudios.coffeescene.annotations.Scene}.
+     * @param durationNanos the inflation time.
+     */
+    void onSceneInflated(@LayoutRes int layout, long durationNanos);
+
+    /**
+     * A switch has been dispatched: the adapter has started its animations and the
+     * listeners have been notified. The inflation of a lazy scene is not included.
+     *
+     * @param sceneId the scene being displayed.
+     * @param durationNanos the time spent on the main thread.
+     */
+    void onSceneSwitched(int sceneId, long durationNanos);
+
+    /**
+     * The animations of a switch are done. A switch without animation is not reported.
+     *
+     * @param adapter the adapter of the scenes.
+     * @param durationNanos the time from the switch to the end of the last animation.
+     */
+    void onAnimationEnded(@NonNull AnimationAdapter adapter, long durationNanos);
+
+    /**
+     * The animations of a switch have been interrupted by another switch.
+     *
+     * @param adapter the adapter of the scenes.
+     */
+    void onAnimationInterrupted(@NonNull AnimationAdapter adapter);
+}
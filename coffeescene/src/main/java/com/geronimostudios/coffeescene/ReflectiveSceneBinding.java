@@ -0,0 +1,72 @@
+package com.geronimostudios.coffeescene;
+
+import android.support.annotation.NonNull;
+
+import com.geronimostudios.coffeescene.annotations.CoffeeScene;
+import com.geronimostudios.coffeescene.annotations.Scene;
+
+/**
+ * A {@link SceneBinding} that reads the {@link CoffeeScene} annotation by reflection.
+ * Used when no binding has been generated for a class.
+ */
+final class ReflectiveSceneBinding implements SceneBinding {
+    private final int[] mScenes;
+    private final int[] mLayouts;
+    private final int mFirst;
+    private final boolean mLazy;
+    private final boolean mAsync;
+
+    private ReflectiveSceneBinding(@NonNull CoffeeScene setup) {
+        Scene[] scenes = setup.value();
+        mScenes = new int[scenes.length];
+        mLayouts = new int[scenes.length];
+        for (int i = 0; i < scenes.length; ++i) {
+            mScenes[i] = scenes[i].scene();
+            mLayouts[i] = scenes[i].layout();
+        }
+        mFirst = getValidFirstScene(setup.first(), mScenes);
+        mLazy = setup.lazy();
+        mAsync = setup.async();
+    }
+
+    static ReflectiveSceneBinding of(@NonNull Class<?> objClass) {
+        if (!objClass.isAnnotationPresent(CoffeeScene.class)) {
+            throw new RuntimeException("Annotation @CoffeeScene is missing");
+        }
+        return new ReflectiveSceneBinding(objClass.getAnnotation(CoffeeScene.class));
+    }
+
+    private static int getValidFirstScene(int firstScene, int[] scenes) {
+        for (int scene : scenes) {
+            if (scene == firstScene) {
+                return firstScene; // the default scene specified by the user is valid
+            }
+        }
+        return scenes[0]; // the default scene is not valid
+    }
+
+    @Override
+    public int[] scenes() {
+        return mScenes;
+    }
+
+    @Override
+    public int[] layouts() {
+        return mLayouts;
+    }
+
+    @Override
+    public int first() {
+        return mFirst;
+    }
+
+    @Override
+    public boolean lazy() {
+        return mLazy;
+    }
+
+    @Override
+    public boolean async() {
+        return mAsync;
+    }
+}
@@ -0,0 +1,98 @@
+package com.geronimostudios.coffeescene;
+
+import android.support.annotation.NonNull;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * <p>Collects the scene changes of several references and applies them
+ * in the same frame: the view hierarchy is laid out once for all of them.</p>
+ *
+ * <p>Example:
+ * SceneManager.batch()
+ *      .scene(mHeader, Scene.PLACEHOLDER)
+ *      .scene(mList, Scene.PLACEHOLDER)
+ *      .scene(this, Scene.MAIN)
+ *      .apply();</p>
+ *
+ * <p>Must be used from the main thread. The batch can be reused once applied.</p>
+ */
+public final class SceneBatch {
+    private final List<Object> mReferences = new ArrayList<>();
+    private int[] mScenes = new int[8];
+    private boolean[] mAnimates = new boolean[8];
+    private boolean mPosted;
+    private final FrameScheduler.FrameTask mApplyTask = new FrameScheduler.FrameTask() {
+        @Override
+        public void run() {
+            doApply();
+        }
+    };
+
+    SceneBatch() {
+        // created with SceneManager.batch()
+    }
+
+    /**
+     * Add an animated scene change. A reference added twice only keeps its last scene.
+     *
+     * @param reference The reference used to create the scenes.
+     * @param scene The scene id. See {@link com.geronimostudios.coffeescene.annotations.Scene}.
+     * @return this {@link SceneBatch} for more scene changes.
+     */
+    public SceneBatch scene(@NonNull Object reference, int scene) {
+        return scene(reference, scene, true);
+    }
+
+    /**
+     * Add a scene change. A reference added twice only keeps its last scene.
+     *
+     * @param reference The reference used to create the scenes.
+     * @param scene The scene id. See {@link com.geronimostudios.coffeescene.annotations.Scene}.
+     * @param animate true to animate the transition.
+     * @return this {@link SceneBatch} for more scene changes.
+     */
+    public SceneBatch scene(@NonNull Object reference, int scene, boolean animate) {
+        int index = indexOf(reference);
+        if (index < 0) {
+            index = mReferences.size();
+            mReferences.add(reference);
+            if (index == mScenes.length) {
+                mScenes = Arrays.copyOf(mScenes, index * 2);
+                mAnimates = Arrays.copyOf(mAnimates, index * 2);
+            }
+        }
+        mScenes[index] = scene;
+        mAnimates[index] = animate;
+        return this;
+    }
+
+    /**
+     * Apply the scene changes at the next frame.
+     */
+    public void apply() {
+        if (!mPosted && !mReferences.isEmpty()) {
+            mPosted = true;
+            FrameScheduler.post(mApplyTask);
+        }
+    }
+
+    private void doApply() {
+        mPosted = false;
+        for (int i = 0; i < mReferences.size(); ++i) {
+            SceneManager.doBatchedChangeScene(mReferences.get(i), mScenes[i], mAnimates[i]);
+        }
+        mReferences.clear(); // do not retain the references
+    }
+
+    private int indexOf(@NonNull Object reference) {
+        for (int i = 0; i < mReferences.size(); ++i) {
+            if (mReferences.get(i) == reference) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
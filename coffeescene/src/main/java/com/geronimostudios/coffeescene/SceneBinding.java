@@ -0,0 +1,41 @@
+package com.geronimostudios.coffeescene;
+
+import com.geronimostudios.coffeescene.annotations.CoffeeScene;
+import com.geronimostudios.coffeescene.annotations.Scene;
+
+/**
+ * <p>The scenes declared by a {@link CoffeeScene}.</p>
+ *
+ * <p>A binding named {@code <ClassName>_SceneBinding} is generated for each class
+ * annotated with {@link CoffeeScene} when the {@code coffeescene-compiler} annotation
+ * processor is used. {@link SceneManager} uses it instead of reading the annotations
+ * by reflection.</p>
+ */
+public interface SceneBinding {
+
+    /**
+     * @return The scene ids in the declaration order. See {@link Scene#scene()}.
+     */
+    int[] scenes();
+
+    /**
+     * @return The layout of each scene in the declaration order. See {@link Scene#layout()}.
+     */
+    int[] layouts();
+
+    /**
+     * @return The scene displayed first. See {@link CoffeeScene#first()}.
+     * This scene id is always declared by {@link #scenes()}.
+     */
+    int first();
+
+    /**
+     * @return See {@link CoffeeScene#lazy()}.
+     */
+    boolean lazy();
+
+    /**
+     * @return See {@link CoffeeScene#async()}.
+     */
+    boolean async();
+}
@@ -0,0 +1,147 @@
+package com.geronimostudios.coffeescene;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import com.geronimostudios.coffeescene.annotations.Scene;
+
+import java.lang.ref.WeakReference;
+import java.util.concurrent.Executor;
+
+/**
+ * <p>Controls the scenes of one reference. Unlike the static methods of
+ * {@link SceneManager}, a {@link SceneController} is bound to the scenes:
+ * a switch does not have to look them up.</p>
+ *
+ * <p>Returned by {@link SceneManager#createController(SceneCreator)} and
+ * {@link SceneManager#controller(Object)}. Once the scenes are released,
+ * the controller does nothing and {@link #current()} returns {@link Integer#MIN_VALUE}.</p>
+ *
+ * <p>Like the static methods, {@link #scene(int)} and {@link #current()} can be called
+ * from any thread.</p>
+ *
+ * <p>Example:
+ * mScenes = SceneManager.controller(this);
+ * ...
+ * mScenes.scene(Scene.MAIN);</p>
+ */
+public final class SceneController {
+    private final WeakReference<Object> mReference;
+    private volatile @Nullable ScenesMeta mMeta;
+
+    SceneController(@NonNull Object reference, @NonNull ScenesMeta meta) {
+        mReference = new WeakReference<>(reference);
+        mMeta = meta;
+    }
+
+    /**
+     * Switch to another {@link Scene}.
+     *
+     * @param scene The scene id. See {@link Scene#scene()}.
+     */
+    public void scene(int scene) {
+        scene(scene, true);
+    }
+
+    /**
+     * Switch to another {@link Scene}.
+     *
+     * @param scene The scene id. See {@link Scene#scene()}.
+     * @param animate true to animate the transition.
+     */
+    public void scene(int scene, boolean animate) {
+        ScenesMeta meta = mMeta;
+        if (meta != null) {
+            SceneManager.requestScene(meta, scene, animate);
+        }
+    }
+
+    /**
+     * Display the first scene without animation. See {@link SceneManager#reset(Object)}.
+     */
+    public void reset() {
+        if (mMeta != null && mMeta.getFirstSceneId() != Integer.MIN_VALUE) {
+            SceneManager.doResetScene(mMeta, mMeta.getFirstSceneId());
+        }
+    }
+
+    /**
+     * Display a scene without animation. See {@link SceneManager#reset(Object, int)}.
+     *
+     * @param scene The scene id. See {@link Scene#scene()}.
+     */
+    public void reset(int scene) {
+        if (mMeta != null) {
+            SceneManager.doResetScene(mMeta, scene);
+        }
+    }
+
+    /**
+     * Add a listener. See {@link SceneManager#addListener(Object, Listener)}.
+     *
+     * @param listener The listener, see {@link CoffeeSceneListenerAdapter}.
+     */
+    public void addListener(@NonNull Listener listener) {
+        ScenesMeta meta = mMeta;
+        if (meta != null) {
+            meta.addListener(listener);
+        }
+    }
+
+    /**
+     * Deliver the listener events on an executor.
+     * See {@link SceneManager#setListenerExecutor(Object, Executor)}.
+     *
+     * @param executor The executor, null to deliver the events on the main thread.
+     */
+    public void setListenerExecutor(@Nullable Executor executor) {
+        ScenesMeta meta = mMeta;
+        if (meta != null) {
+            meta.setListenerExecutor(executor);
+        }
+    }
+
+    /**
+     * Remove a listener. See {@link SceneManager#removeListener(Object, Listener)}.
+     *
+     * @param listener The listener.
+     */
+    public void removeListener(@NonNull Listener listener) {
+        ScenesMeta meta = mMeta;
+        if (meta != null) {
+            meta.removeListener(listener);
+        }
+    }
+
+    /**
+     * @return The current scene or {@link Integer#MIN_VALUE} if the scenes are released.
+     */
+    public int current() {
+        ScenesMeta meta = mMeta;
+        return meta == null ? Integer.MIN_VALUE : meta.getCurrentSceneId();
+    }
+
+    /**
+     * Release the scenes, same as the release methods of {@link SceneManager}.
+     * Does nothing if the scenes have been released or created again for the reference.
+     */
+    public void release() {
+        ScenesMeta meta = mMeta;
+        if (meta == null) {
+            return;
+        }
+        Object reference = mReference.get();
+        if (reference != null) {
+            SceneManager.releaseMeta(reference, meta);
+        } else {
+            meta.detach(); // the reference has been garbage collected
+        }
+    }
+
+    /**
+     * Called by {@link ScenesMeta#detach()}.
+     */
+    void onReleased() {
+        mMeta = null;
+    }
+}
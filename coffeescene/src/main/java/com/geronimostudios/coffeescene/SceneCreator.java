@@ -8,11 +8,13 @@ import android.support.annotation.Nullable;
 import android.support.v4.util.Pair;
 import android.view.View;
 import android.view.ViewGroup;
+import android.view.ViewStub;
 
 import com.geronimostudios.coffeescene.animations.AnimationAdapter;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.Executor;
 
 /**
  * <p>This {@link SceneCreator} allows to create mScenes from an existing layout.</p>
@@ -33,6 +35,8 @@ public final class SceneCreator {
     private @Nullable
     AnimationAdapter mAdapter;
     private int mFirstSceneId;
+    private boolean mLazy;
+    private @Nullable Executor mListenerExecutor;
     private List<Pair<Integer, View>> mScenes;
 
     private SceneCreator(@NonNull Object reference, @NonNull ViewGroup rootView) {
@@ -149,6 +153,18 @@ public final class SceneCreator {
         return this;
     }
 
+    /**
+     * Deliver the {@link Listener} events on an executor instead of the main thread,
+     * in order. See {@link SceneManager#setListenerExecutor(Object, Executor)}.
+     *
+     * @param executor the executor, null to deliver the events on the main thread.
+     * @return a {@link SceneCreator} for more configurations.
+     */
+    public SceneCreator listenerExecutor(@Nullable Executor executor) {
+        mListenerExecutor = executor;
+        return this;
+    }
+
     /**
      * Change the default view.
      * {@link #main(int)} is now deprecated, {@link #first(int)} should be used instead.
@@ -172,6 +188,18 @@ public final class SceneCreator {
         return this;
     }
 
+    /**
+     * <p>If true, the scenes added as a {@link ViewStub} are inflated
+     * the first time they are displayed instead of being displayed as a stub.</p>
+     *
+     * @param lazy true to inflate the {@link ViewStub} lazily.
+     * @return a {@link SceneCreator} for more configurations.
+     */
+    public SceneCreator lazy(boolean lazy) {
+        mLazy = lazy;
+        return this;
+    }
+
     /**
      * Create a new scene by providing a view and sceneId.
      *
@@ -203,6 +231,11 @@ public final class SceneCreator {
         return mReference;
     }
 
+    @NonNull
+    ViewGroup getRootView() {
+        return mRootView;
+    }
+
     @Nullable
     AnimationAdapter getAdapter() {
         return mAdapter;
@@ -212,6 +245,10 @@ public final class SceneCreator {
         return mFirstSceneId;
     }
 
+    boolean isLazy() {
+        return mLazy;
+    }
+
     @NonNull
     List<Pair<Integer, View>> getScenes() {
         return mScenes;
@@ -221,4 +258,9 @@ public final class SceneCreator {
     Listener getListener() {
         return mListener;
     }
+
+    @Nullable
+    Executor getListenerExecutor() {
+        return mListenerExecutor;
+    }
 }
@@ -4,9 +4,9 @@ import android.app.Activity;
 import android.app.Fragment;
 import android.content.Context;
 import android.os.Bundle;
+import android.os.Looper;
 import android.support.annotation.NonNull;
 import android.support.annotation.Nullable;
-import android.support.v4.util.Pair;
 import android.util.SparseArray;
 import android.view.LayoutInflater;
 import android.view.View;
@@ -14,13 +14,13 @@ import android.view.ViewGroup;
 import android.widget.FrameLayout;
 
 import com.geronimostudios.coffeescene.animations.AnimationAdapter;
+import com.geronimostudios.coffeescene.animations.DeltaAnimationAdapter;
 import com.geronimostudios.coffeescene.animations.SceneAnimations;
 import com.geronimostudios.coffeescene.annotations.CoffeeScene;
 import com.geronimostudios.coffeescene.annotations.Scene;
 
-import java.lang.ref.WeakReference;
-import java.util.LinkedList;
 import java.util.List;
+import java.util.concurrent.Executor;
 
 /**
  * <p>The {@link SceneManager} is used to initialize an {@link Activity},
@@ -28,13 +28,42 @@ import java.util.List;
  * {@link android.support.v4.app.Fragment} annotated with {@link CoffeeScene}.</p>
  *
  * {@link SceneManager} is also used to switch the mScenes.
+ *
+ * <p>{@link #scene(Object, int)} and {@link #current(Object)} can be called from any thread:
+ * a switch requested from another thread is done on the main thread, the last one wins.
+ * The other methods must be called from the main thread.</p>
  */
 public final class SceneManager {
 
     /**
      * A dictionary of {@link ScenesMeta} associated with their view, activity or fragment.
      */
-    private static List<Pair<WeakReference<Object>, ScenesMeta>> sScenesMeta = new LinkedList<>();
+    private static final ScenesRegistry sScenesMeta = new ScenesRegistry();
+
+    /**
+     * The scenes declared by each class annotated with {@link CoffeeScene}.
+     */
+    private static final SceneTableCache sSceneTables = new SceneTableCache();
+
+    /**
+     * The views of the released scenes, disabled by default.
+     */
+    private static final SceneViewPool sViewPool = new SceneViewPool();
+
+    /**
+     * Inflates the lazy scenes of the async holders in background, one at a time.
+     */
+    private static final AsyncSceneInflater sAsyncInflater = new AsyncSceneInflater();
+
+    /**
+     * True if the switches requested during a frame are coalesced.
+     */
+    private static volatile boolean sCoalesceSwitches;
+
+    /**
+     * Receives the durations of the inflations, switches and animations, null if disabled.
+     */
+    private static volatile @Nullable MetricsSink sMetricsSink;
 
     /**
      * <p>Parse the annotation {@link CoffeeScene} of an Object
@@ -217,23 +246,35 @@ public final class SceneManager {
      * @param creator a {@link SceneCreator}
      */
     public static void create(@NonNull SceneCreator creator) {
+        createController(creator);
+    }
+
+    /**
+     * Same as {@link #create(SceneCreator)}, returns a {@link SceneController} bound to
+     * the new scenes.
+     *
+     * @param creator a {@link SceneCreator}
+     * @return a {@link SceneController} bound to the new scenes.
+     */
+    public static SceneController createController(@NonNull SceneCreator creator) {
         // Save the scene's meta data
         AnimationAdapter adapter = creator.getAdapter();
-        sScenesMeta.add(Pair.create(
-                new WeakReference<>(creator.getReference()),
-                new ScenesMeta(
-                        adapter == null ? SceneAnimations.FADE : adapter,
-                        creator.getScenes(),
-                        creator.getListener()
-                ))
+        ScenesMeta meta = new ScenesMeta(
+                adapter == null ? SceneAnimations.FADE : adapter,
+                creator.getScenes(),
+                creator.getListener(),
+                creator.isLazy()
         );
+        meta.setListenerExecutor(creator.getListenerExecutor());
+        meta.setHolderClass(creator.getReference().getClass());
+        meta.attachTo(creator.getRootView());
+        register(creator.getReference(), meta);
         if (creator.getFirstSceneId() != -1) {
-            doChangeScene(
-                    creator.getReference(),
-                    creator.getFirstSceneId(),
-                    false
-            );
+            meta.setFirstSceneId(creator.getFirstSceneId());
+            // Not coalesced, the first scene is displayed before the first frame
+            doChangeScene(meta, creator.getFirstSceneId(), false);
         }
+        return meta.getController(creator.getReference());
     }
 
     /**
@@ -243,6 +284,7 @@ public final class SceneManager {
      */
     public static void release(@NonNull Activity activity) {
         releaseMeta(activity);
+        sViewPool.evict(activity);
     }
 
     /**
@@ -267,12 +309,111 @@ public final class SceneManager {
     /**
      * <p>Release all reference linked with an {@link ViewGroup}.</p>
      *
+     * <p>If the view pool is enabled, see {@link #setViewPoolSize(int)}, the views of the
+     * scenes are removed from the view group and reused by the next {@link #create(ViewGroup)}
+     * with the same layouts. A view group still attached to its window keeps displaying
+     * them until it is detached.</p>
+     *
      * @param view an {@link Activity} that has called {@link #create(ViewGroup)}
      */
     public static void release(@NonNull ViewGroup view) {
         releaseMeta(view);
     }
 
+    /**
+     * <p>The {@link SceneController} of a reference, to switch its scenes without
+     * looking them up each time. The same controller is returned until the scenes
+     * are released.</p>
+     *
+     * @param reference The reference of the mScenes.
+     * @return The controller, null if the reference has no scenes.
+     */
+    @Nullable
+    public static SceneController controller(@NonNull Object reference) {
+        ScenesMeta meta = safeGetMetaData(reference);
+        return meta == null ? null : meta.getController(reference);
+    }
+
+    /**
+     * <p>Add a {@link Listener} to the scenes of a reference. A listener added while the
+     * listeners are notified is notified from the next switch.</p>
+     *
+     * @param reference The reference of the mScenes.
+     * @param listener The listener, see {@link CoffeeSceneListenerAdapter}.
+     */
+    public static void addListener(@NonNull Object reference, @NonNull Listener listener) {
+        ScenesMeta meta = safeGetMetaData(reference);
+        if (meta != null) {
+            meta.addListener(listener);
+        }
+    }
+
+    /**
+     * <p>Remove a {@link Listener} added with {@link #addListener(Object, Listener)} or
+     * with {@link SceneCreator#listener(Listener)}.</p>
+     *
+     * @param reference The reference of the mScenes.
+     * @param listener The listener.
+     */
+    public static void removeListener(@NonNull Object reference, @NonNull Listener listener) {
+        ScenesMeta meta = safeGetMetaData(reference);
+        if (meta != null) {
+            meta.removeListener(listener);
+        }
+    }
+
+    /**
+     * <p>Deliver the {@link Listener} events of a reference on an executor, ex: to log or
+     * persist the scenes without using the frame time of the main thread.</p>
+     *
+     * <p>The events of a reference are delivered in order, one at a time, even on
+     * a thread pool. The {@link TransitionListener} events are still delivered on the
+     * main thread.</p>
+     *
+     * @param reference The reference of the mScenes.
+     * @param executor The executor, null to deliver the events on the main thread (default).
+     */
+    public static void setListenerExecutor(@NonNull Object reference,
+                                           @Nullable Executor executor) {
+        ScenesMeta meta = safeGetMetaData(reference);
+        if (meta != null) {
+            meta.setListenerExecutor(executor);
+        }
+    }
+
+    /**
+     * <p>Display the first scene of a reference without animation, ex: when a
+     * {@code RecyclerView} binds a recycled row.</p>
+     *
+     * <p>The views are neither inflated nor registered again: the running animations are
+     * canceled and the visibility of the scenes is reset. The pending switches are dropped.
+     * Does nothing if the reference has no scenes or no first scene.</p>
+     *
+     * @param reference The reference of the mScenes.
+     */
+    public static void reset(@NonNull Object reference) {
+        ScenesMeta meta = safeGetMetaData(reference);
+        if (meta != null && meta.getFirstSceneId() != Integer.MIN_VALUE) {
+            doResetScene(meta, meta.getFirstSceneId());
+        }
+    }
+
+    /**
+     * <p>Display a scene of a reference without animation, ex: when a
+     * {@code RecyclerView} binds a recycled row with a state.</p>
+     *
+     * <p>Same as {@link #reset(Object)} with another scene than the first one.</p>
+     *
+     * @param reference The reference of the mScenes.
+     * @param scene The scene id. See {@link Scene#scene()}.
+     */
+    public static void reset(@NonNull Object reference, int scene) {
+        ScenesMeta meta = safeGetMetaData(reference);
+        if (meta != null) {
+            doResetScene(meta, scene);
+        }
+    }
+
     /**
      * @param reference The reference of the mScenes, it can be a {@link ViewGroup},
      *                  {@link android.support.v4.app.Fragment}, {@link Fragment},
@@ -287,13 +428,150 @@ public final class SceneManager {
         return meta.getCurrentSceneId();
     }
 
-    private static void releaseMeta(@NonNull Object object) {
-        Pair<WeakReference<Object>, ScenesMeta> node = safeGetMetaPair(object);
-        if (node != null) {
-            sScenesMeta.remove(node);
+    /**
+     * <p>If enabled, the scene switches are done at the next frame instead of immediately.
+     * When several switches are requested for the same reference during a frame,
+     * only the last one is done.</p>
+     *
+     * <p>Ex: {@code scene(this, Scene.SPINNER)} followed by {@code scene(this, Scene.MAIN)}
+     * does nothing if {@link Scene#MAIN} is displayed.</p>
+     *
+     * <p>{@link #current(Object)} returns the displayed scene until the switch is done.
+     * Disabled by default.</p>
+     *
+     * @param enabled true to coalesce the switches.
+     */
+    public static void setCoalesceSwitches(boolean enabled) {
+        sCoalesceSwitches = enabled;
+    }
+
+    /**
+     * <p>Measure the inflation of the scenes, the dispatch of the switches and the
+     * duration of the animations, ex: with a {@link HistogramMetricsSink}.</p>
+     *
+     * <p>Nothing is measured by default. The clock is only read while a sink is set.</p>
+     *
+     * @param sink The sink, null to stop measuring.
+     */
+    public static void setMetricsSink(@Nullable MetricsSink sink) {
+        sMetricsSink = sink;
+    }
+
+    /**
+     * <p>Emit trace sections, visible in systrace and Perfetto, around the inflation of the
+     * scenes, the switches, the listeners and the end of the animations. The sections are
+     * named after the class of the holder and the scene id.</p>
+     *
+     * <p>Disabled by default: nothing is built or emitted while disabled.
+     * The sections are only emitted from API 18.</p>
+     *
+     * @param enabled true to emit the trace sections.
+     */
+    public static void setTracingEnabled(boolean enabled) {
+        SceneTrace.setEnabled(enabled);
+    }
+
+    @Nullable
+    static MetricsSink getMetricsSink() {
+        return sMetricsSink;
+    }
+
+    /**
+     * <p>Start a batch of scene changes for several references. The changes are applied
+     * in the same frame by {@link SceneBatch#apply()}.</p>
+     *
+     * @return a new {@link SceneBatch}.
+     */
+    public static SceneBatch batch() {
+        return new SceneBatch();
+    }
+
+    /**
+     * <p>Keep the views of the released scenes to reuse them instead of inflating the same
+     * layouts again. Ex: the placeholder of the rows of a list.</p>
+     *
+     * <p>Only the scenes created from a {@link CoffeeScene} are pooled. A view is reused
+     * with the context that has inflated it, the views of an activity are dropped
+     * by {@link #release(Activity)} or once the activity is finishing or destroyed.</p>
+     *
+     * @param maxSize The maximum number of views kept per layout, 0 (default) to disable
+     *                the pool and drop its views.
+     */
+    public static void setViewPoolSize(int maxSize) {
+        sViewPool.setMaxSize(maxSize);
+    }
+
+    /**
+     * @return the number of scene views taken from the pool instead of being inflated.
+     */
+    public static long getViewPoolHitCount() {
+        return sViewPool.getHitCount();
+    }
+
+    /**
+     * @return the number of scene views inflated while the pool was enabled.
+     */
+    public static long getViewPoolMissCount() {
+        return sViewPool.getMissCount();
+    }
+
+    /**
+     * <p>The scenes of a reference that has been garbage collected without calling
+     * {@link #release(Activity)} (or another release method) are purged automatically.</p>
+     *
+     * @return the number of scenes purged automatically since the start of the process.
+     */
+    public static long getPurgedCount() {
+        return sScenesMeta.getPurgedCount();
+    }
+
+    /**
+     * @return the number of {@link #create(Activity)} calls (or another annotation based
+     * create method) that have reused the scenes parsed for the same class.
+     */
+    public static long getSceneTableCacheHitCount() {
+        return sSceneTables.getHitCount();
+    }
+
+    /**
+     * @return the number of classes whose {@link CoffeeScene} has been parsed.
+     */
+    public static long getSceneTableCacheMissCount() {
+        return sSceneTables.getMissCount();
+    }
+
+    /**
+     * Link the scenes to their reference. The scenes previously created for the reference
+     * are detached: they would stay attached to their root view otherwise.
+     */
+    private static void register(@NonNull Object reference, @NonNull ScenesMeta meta) {
+        ScenesMeta previous = sScenesMeta.put(reference, meta);
+        if (previous != null && previous != meta) {
+            previous.detach();
         }
     }
 
+    static void releaseMeta(@NonNull Object object) {
+        ScenesMeta meta = sScenesMeta.remove(object);
+        if (meta != null) {
+            meta.recycleViews(sViewPool);
+            meta.detach();
+        }
+        sViewPool.evictDead();
+    }
+
+    /**
+     * Release the scenes of a reference only if they are still linked to it: a
+     * {@link SceneController} kept from a previous create must not release the new scenes.
+     */
+    static void releaseMeta(@NonNull Object object, @NonNull ScenesMeta meta) {
+        if (sScenesMeta.remove(object, meta)) {
+            meta.recycleViews(sViewPool);
+        }
+        meta.detach();
+        sViewPool.evictDead();
+    }
+
     /**
      * Parse the annotation {@link CoffeeScene}, of an object.
      * Creates the mScenes and add them into a view group.
@@ -312,32 +590,47 @@ public final class SceneManager {
                                       @NonNull ViewGroup root,
                                       @Nullable Listener listener) {
         // Retrieve annotations
-        CoffeeScene setup = safeGetSetup(object);
-        Scene[] scenes = setup.value();
+        SceneTable table = sSceneTables.get(object.getClass());
+        int[] scenes = table.mScenes;
+        int firstScene = table.mFirst;
 
-        // Create root node with all mScenes
+        // Create root node with all mScenes, or only the first one if they are lazy
         if (adapter == null) {
             adapter = SceneAnimations.FADE;
         }
         LayoutInflater inflater = LayoutInflater.from(context);
-        for (Scene scene : scenes) {
-            View view = inflater.inflate(scene.layout(), root, false);
-            root.addView(view);
+        View[] views = new View[scenes.length];
+        boolean trace = SceneTrace.isEnabled();
+        for (int i = 0; i < scenes.length; ++i) {
+            if (!table.mLazy || scenes[i] == firstScene) {
+                if (trace) {
+                    SceneTrace.begin(SceneTrace.INFLATE, object.getClass(), scenes[i]);
+                }
+                views[i] = sViewPool.obtain(inflater, table.mLayouts[i], root);
+                root.addView(views[i]);
+                if (trace) {
+                    SceneTrace.end();
+                }
+            }
         }
 
         // Save the scene's meta data
-        ScenesMeta meta = new ScenesMeta(root, adapter, scenes, listener);
-        sScenesMeta.add(Pair.create(
-                new WeakReference<>(object),
-                meta
-        ));
+        ScenesMeta meta =
+                new ScenesMeta(root, inflater, sViewPool, adapter, table, views, listener);
+        meta.setHolderClass(object.getClass());
+        meta.attachTo(root);
+        register(object, meta);
+        if (table.mAsync) {
+            meta.preInflateAfterFirstFrame(sAsyncInflater);
+        }
         //noinspection unchecked
         adapter.doChangeScene(
                 meta.getScenesIdsToViews(),
                 meta.getScenesParams(),
-                getValidFirstScene(setup, scenes),
+                firstScene,
                 false
         );
+        meta.setCurrentSceneId(firstScene);
         return root;
     }
 
@@ -443,80 +736,187 @@ public final class SceneManager {
         doChangeScene(fragment, scene, animate);
     }
 
-    private static int getValidFirstScene(CoffeeScene setup, Scene[] scenes) {
-        int firstScene = setup.first();
-        for (Scene scene : scenes) {
-            if (scene.scene() == firstScene) {
-                return firstScene; // the default scene specified by the user is valid
-            }
+    private static @Nullable ScenesMeta safeGetMetaData(@NonNull Object object) {
+        return sScenesMeta.get(object);
+    }
+
+    private static void doChangeScene(@NonNull Object object, int sceneId) {
+        doChangeScene(object, sceneId, true);
+    }
+
+    private static void doChangeScene(@NonNull Object object, int sceneId, boolean animate) {
+        ScenesMeta meta = safeGetMetaData(object);
+        if (meta != null) {
+            requestScene(meta, sceneId, animate);
         }
-        return scenes[0].scene(); // the default scene is not valid
     }
 
-    private static CoffeeScene safeGetSetup(@NonNull Object object) {
-        Class<?> objClass = object.getClass();
-        if (!objClass.isAnnotationPresent(CoffeeScene.class)) {
-            throw new RuntimeException("Annotation @CoffeeScene is missing");
+    /**
+     * Apply a scene change of a {@link SceneBatch}, it replaces the coalesced switch
+     * of the reference if any.
+     */
+    static void doBatchedChangeScene(@NonNull Object object, int sceneId, boolean animate) {
+        ScenesMeta meta = safeGetMetaData(object);
+        if (meta != null) {
+            meta.cancelPendingScene();
+            if (meta.getRequestedSceneId() != sceneId) {
+                doChangeScene(meta, sceneId, animate);
+            }
         }
-        return objClass.getAnnotation(CoffeeScene.class);
     }
 
-    private static @Nullable ScenesMeta safeGetMetaData(@NonNull Object object) {
-        Pair<WeakReference<Object>, ScenesMeta> node = safeGetMetaPair(object);
-        if (node != null) {
-            return node.second;
+    /**
+     * Switch the scenes of a {@link ScenesMeta} unless the scene is already displayed
+     * or requested. The switch is done at the next frame if the switches are coalesced.
+     * A switch requested from another thread is posted to the main thread.
+     */
+    static void requestScene(@NonNull ScenesMeta meta, int sceneId, boolean animate) {
+        if (Looper.myLooper() != Looper.getMainLooper()) {
+            meta.postToMainThread(sceneId, animate);
+            return;
         }
-        return null;
+        // The last request wins: a switch posted from another thread before is dropped
+        meta.cancelPostedScene();
+        requestSceneOnMainThread(meta, sceneId, animate);
     }
 
-    private static @Nullable Pair<WeakReference<Object>, ScenesMeta>
-    safeGetMetaPair(@NonNull Object object) {
-        for (Pair<WeakReference<Object>, ScenesMeta> pair : sScenesMeta) {
-            if (pair.first != null) {
-                if (pair.first.get().equals(object)) {
-                    return pair;
-                }
-            }
+    /**
+     * Same as {@link #requestScene(ScenesMeta, int, boolean)} on the main thread, the switch
+     * posted from another thread is kept: called by the posted task.
+     */
+    static void requestSceneOnMainThread(@NonNull ScenesMeta meta,
+                                         int sceneId,
+                                         boolean animate) {
+        if (meta.getRequestedSceneId() == sceneId) {
+            return;
+        }
+        if (sCoalesceSwitches) {
+            meta.postSceneAtNextFrame(sceneId, animate);
+        } else {
+            doChangeScene(meta, sceneId, animate);
         }
-        return null;
     }
 
-    private static void doChangeScene(@NonNull Object object, int sceneId) {
-        doChangeScene(object, sceneId, true);
+    /**
+     * Switch the scenes of a {@link ScenesMeta}. The switch is queued if the views
+     * of the scene are being inflated asynchronously.
+     */
+    static void doChangeScene(@NonNull ScenesMeta meta, int sceneId, boolean animate) {
+        if (meta.queueUntilInflated(sceneId, animate)) {
+            return;
+        }
+        if (sceneId == meta.getCurrentSceneId()) {
+            return; // already displayed, ex: the coalesced switches came back to this scene
+        }
+        boolean trace = SceneTrace.isEnabled();
+        if (trace) {
+            SceneTrace.begin(SceneTrace.SWITCH, meta.getHolderClass(), sceneId);
+        }
+        meta.ensureInflated(sceneId);
+        MetricsSink sink = sMetricsSink;
+        long start = sink == null ? 0 : System.nanoTime();
+        SparseArray<List<View>> scenesIdsToViews = meta.getScenesIdsToViews();
+        AnimationAdapter adapter = meta.getSceneAnimationAdapter();
+        int previousSceneId = meta.getCurrentSceneId();
+        boolean transition = meta.beginTransition();
+        if (trace) {
+            SceneTrace.begin(SceneTrace.ANIMATE, meta.getHolderClass(), sceneId);
+        }
+        if (previousSceneId != Integer.MIN_VALUE && adapter instanceof DeltaAnimationAdapter) {
+            // Only the previous and the new scenes have to be updated
+            //noinspection unchecked
+            ((DeltaAnimationAdapter) adapter).doChangeScene(
+                    scenesIdsToViews, meta.getScenesParams(), previousSceneId, sceneId, animate);
+        } else {
+            //noinspection unchecked
+            adapter.doChangeScene(scenesIdsToViews, meta.getScenesParams(), sceneId, animate);
+        }
+        if (transition) {
+            meta.endTransitionStart();
+        }
+        if (trace) {
+            SceneTrace.end();
+        }
+        meta.setCurrentSceneId(sceneId);
+        notifyListeners(meta, previousSceneId, sceneId);
+        if (transition) {
+            meta.startTransition(sceneId);
+        }
+        if (sink != null) {
+            sink.onSceneSwitched(sceneId, System.nanoTime() - start);
+        }
+        if (trace) {
+            SceneTrace.end();
+        }
     }
 
-    private static void doChangeScene(@NonNull Object object, int sceneId, boolean animate) {
-        ScenesMeta meta = safeGetMetaData(object);
-        if (meta == null) {
+    /**
+     * Update every scene without animation, even if the scene is already displayed:
+     * the views can be in the middle of an animation.
+     */
+    static void doResetScene(@NonNull ScenesMeta meta, int sceneId) {
+        meta.cancelPendingScene();
+        if (meta.queueUntilInflated(sceneId, false)) {
             return;
         }
+        meta.ensureInflated(sceneId);
         SparseArray<List<View>> scenesIdsToViews = meta.getScenesIdsToViews();
+        int previousSceneId = meta.getCurrentSceneId();
+        boolean transition = meta.beginTransition();
         //noinspection unchecked
         meta.getSceneAnimationAdapter()
-                .doChangeScene(scenesIdsToViews, meta.getScenesParams(), sceneId, animate);
+                .doChangeScene(scenesIdsToViews, meta.getScenesParams(), sceneId, false);
+        if (transition) {
+            meta.endTransitionStart();
+        }
         meta.setCurrentSceneId(sceneId);
-        notifyListener(scenesIdsToViews, sceneId, meta.getListener());
+        if (previousSceneId != sceneId) {
+            notifyListeners(meta, previousSceneId, sceneId);
+        }
+        if (transition) {
+            meta.startTransition(sceneId);
+        }
     }
 
-    private static void notifyListener(SparseArray<List<View>> scenesIdsToViews,
-                                       int sceneId,
-                                       Listener listener) {
-
-        for (int i = 0; i < scenesIdsToViews.size(); i++) {
-            int viewSceneId = scenesIdsToViews.keyAt(i);
-            boolean show = viewSceneId == sceneId;
-
-            if (listener != null) {
-                if (show) {
-                    listener.onSceneDisplayed(sceneId);
-                } else {
-                    listener.onSceneHidden(sceneId);
+    /**
+     * Notify the listeners of a switch: the previous scene is hidden and the new one
+     * is displayed. The other scenes are not notified, they were already hidden.
+     * The events are queued if the listeners have an executor.
+     */
+    private static void notifyListeners(@NonNull ScenesMeta meta,
+                                        int previousSceneId,
+                                        int sceneId) {
+        Listener[] listeners = meta.getListeners();
+        if (listeners.length == 0) {
+            return;
+        }
+        boolean trace = SceneTrace.isEnabled();
+        if (trace) {
+            SceneTrace.begin(SceneTrace.LISTENERS, meta.getHolderClass(), sceneId);
+        }
+        boolean hidden = previousSceneId != Integer.MIN_VALUE && previousSceneId != sceneId;
+        ListenerQueue queue = meta.getListenerQueue();
+        if (queue != null) {
+            if (hidden) {
+                queue.post(ListenerQueue.SCENE_HIDDEN, previousSceneId, listeners);
+            }
+            queue.post(ListenerQueue.SCENE_DISPLAYED, sceneId, listeners);
+            queue.post(ListenerQueue.SCENE_CHANGED, sceneId, listeners);
+        } else {
+            if (hidden) {
+                for (Listener listener : listeners) {
+                    listener.onSceneHidden(previousSceneId);
                 }
             }
+            for (Listener listener : listeners) {
+                listener.onSceneDisplayed(sceneId);
+            }
+            for (Listener listener : listeners) {
+                listener.onSceneChanged(sceneId);
+            }
         }
-
-        if (listener != null) {
-            listener.onSceneChanged(sceneId);
+        if (trace) {
+            SceneTrace.end();
         }
     }
 }
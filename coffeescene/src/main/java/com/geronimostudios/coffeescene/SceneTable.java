@@ -0,0 +1,64 @@
+package com.geronimostudios.coffeescene;
+
+import android.support.annotation.NonNull;
+
+import java.util.Arrays;
+
+/**
+ * <p>The scenes of a class annotated with
+ * {@link com.geronimostudios.coffeescene.annotations.CoffeeScene},
+ * resolved from its {@link SceneBinding} and grouped by scene id.</p>
+ *
+ * <p>A {@link SceneTable} is immutable and shared by all the instances of a class,
+ * see {@link SceneTableCache}.</p>
+ */
+final class SceneTable {
+    /**
+     * The scene id of each layout, in the declaration order.
+     */
+    final int[] mScenes;
+    /**
+     * The layouts, in the declaration order.
+     */
+    final int[] mLayouts;
+    final int mFirst;
+    final boolean mLazy;
+    final boolean mAsync;
+    /**
+     * The distinct scene ids, sorted like the keys of a {@link android.util.SparseArray}.
+     */
+    final int[] mDistinctScenes;
+    /**
+     * The number of layouts of each scene of {@link #mDistinctScenes}.
+     */
+    final int[] mSceneSizes;
+
+    private SceneTable(@NonNull SceneBinding binding) {
+        mScenes = binding.scenes().clone();
+        mLayouts = binding.layouts().clone();
+        mFirst = binding.first();
+        mLazy = binding.lazy() || binding.async();
+        mAsync = binding.async();
+
+        int[] sorted = mScenes.clone();
+        Arrays.sort(sorted);
+        int distinct = 0;
+        for (int i = 0; i < sorted.length; ++i) {
+            if (sorted[i] == Integer.MIN_VALUE) {
+                throw new RuntimeException("Invalid scene id, do not use Integer.MIN_VALUE.");
+            }
+            if (i == 0 || sorted[i] != sorted[i - 1]) {
+                sorted[distinct++] = sorted[i];
+            }
+        }
+        mDistinctScenes = Arrays.copyOf(sorted, distinct);
+        mSceneSizes = new int[distinct];
+        for (int scene : mScenes) {
+            mSceneSizes[Arrays.binarySearch(mDistinctScenes, scene)]++;
+        }
+    }
+
+    static SceneTable of(@NonNull SceneBinding binding) {
+        return new SceneTable(binding);
+    }
+}
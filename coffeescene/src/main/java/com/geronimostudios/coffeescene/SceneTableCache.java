@@ -0,0 +1,65 @@
+package com.geronimostudios.coffeescene;
+
+import android.support.annotation.NonNull;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * <p>A cache of the {@link SceneTable} of each class annotated with
+ * {@link com.geronimostudios.coffeescene.annotations.CoffeeScene}, so the bindings
+ * are looked up and the annotations are parsed once per class.</p>
+ *
+ * <p>A class without generated binding is cached too, with its
+ * {@link ReflectiveSceneBinding}: the failed {@link Class#forName(String)} lookup
+ * and its exception only happen the first time.</p>
+ */
+final class SceneTableCache {
+
+    /**
+     * The suffix of the {@link SceneBinding} generated by the coffeescene-compiler.
+     */
+    private static final String BINDING_SUFFIX = "_SceneBinding";
+
+    private final Map<Class<?>, SceneTable> mTables = new HashMap<>();
+    private long mHitCount;
+    private long mMissCount;
+
+    @NonNull
+    SceneTable get(@NonNull Class<?> objClass) {
+        SceneTable table = mTables.get(objClass);
+        if (table != null) {
+            mHitCount++;
+            return table;
+        }
+        mMissCount++;
+        table = SceneTable.of(findBinding(objClass));
+        mTables.put(objClass, table);
+        return table;
+    }
+
+    long getHitCount() {
+        return mHitCount;
+    }
+
+    long getMissCount() {
+        return mMissCount;
+    }
+
+    /**
+     * @return The {@link SceneBinding} generated by the coffeescene-compiler for the class
+     * or a {@link ReflectiveSceneBinding} if there is none.
+     */
+    private static SceneBinding findBinding(@NonNull Class<?> objClass) {
+        // Nested classes are flattened: Outer$Inner -> Outer_Inner_SceneBinding
+        String bindingName = objClass.getName().replace('$', '_') + BINDING_SUFFIX;
+        try {
+            Class<?> bindingClass = Class.forName(bindingName, true, objClass.getClassLoader());
+            return (SceneBinding) bindingClass.newInstance();
+        } catch (ClassNotFoundException e) {
+            return ReflectiveSceneBinding.of(objClass);
+        } catch (InstantiationException | IllegalAccessException e) {
+            throw new RuntimeException("Unable to create " + bindingName, e);
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.geronimostudios.coffeescene;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.support.v4.os.TraceCompat;
+
+/**
+ * <p>Emits the trace sections of the library, visible in systrace and Perfetto.
+ * A section is named after the work, the class of the holder and the scene id,
+ * ex: "CoffeeScene.switch MainActivity scene=2".</p>
+ *
+ * <p>Disabled by default, see {@link SceneManager#setTracingEnabled(boolean)}. The callers
+ * check {@link #isEnabled()} once and only end the sections they have begun: the names are
+ * only built while tracing. Must be used from the main thread.</p>
+ */
+final class SceneTrace {
+    static final String INFLATE = "CoffeeScene.inflate";
+    static final String SWITCH = "CoffeeScene.switch";
+    static final String ANIMATE = "CoffeeScene.animate";
+    static final String LISTENERS = "CoffeeScene.listeners";
+    static final String TRANSITION_END = "CoffeeScene.transitionEnd";
+    static final String TRANSITION_CANCEL = "CoffeeScene.transitionCancel";
+
+    /**
+     * The maximum length of a section name, see {@link android.os.Trace}.
+     */
+    private static final int MAX_SECTION_LENGTH = 127;
+
+    private static volatile boolean sEnabled;
+
+    private SceneTrace() {
+        // ignored - not instantiable
+    }
+
+    static void setEnabled(boolean enabled) {
+        sEnabled = enabled;
+    }
+
+    static boolean isEnabled() {
+        return sEnabled;
+    }
+
+    /**
+     * @param section The work, ex: {@link #SWITCH}.
+     * @param holder The class of the activity, view or fragment holding the scenes.
+     * @param sceneId The scene.
+     */
+    static void begin(@NonNull String section, @Nullable Class<?> holder, int sceneId) {
+        TraceCompat.beginSection(sectionName(section, holder, sceneId));
+    }
+
+    /**
+     * @return The name of a section, truncated to the maximum length of the sections.
+     */
+    @NonNull
+    static String sectionName(@NonNull String section, @Nullable Class<?> holder, int sceneId) {
+        String name = section + ' '
+                + (holder == null ? "?" : holder.getSimpleName())
+                + " scene=" + sceneId;
+        if (name.length() > MAX_SECTION_LENGTH) {
+            name = name.substring(0, MAX_SECTION_LENGTH);
+        }
+        return name;
+    }
+
+    static void end() {
+        TraceCompat.endSection();
+    }
+}
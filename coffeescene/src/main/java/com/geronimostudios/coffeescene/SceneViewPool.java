@@ -0,0 +1,297 @@
+package com.geronimostudios.coffeescene;
+
+import android.annotation.TargetApi;
+import android.app.Activity;
+import android.content.Context;
+import android.content.ContextWrapper;
+import android.os.Build;
+import android.os.Handler;
+import android.os.Looper;
+import android.support.annotation.LayoutRes;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.support.v4.view.ViewCompat;
+import android.util.SparseArray;
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * <p>The views of the released scenes, keyed by their
+ * {@link com.geronimostudios.coffeescene.annotations.Scene#layout()}.
+ * The scenes created from the annotations take their views from this pool
+ * before inflating them.</p>
+ *
+ * <p>A view is only reused with the context that has inflated it. The views of an
+ * {@link Activity} are evicted when it is released, and the views of a finishing or
+ * destroyed activity are dropped whenever the pool is used: a holder released without
+ * its activity, ex: a fragment, does not leak the activity. A full pool drops its oldest
+ * view, the views of a previous configuration never block the pool.</p>
+ *
+ * <p>The views of a root attached to a window are still on screen: they are only pooled
+ * once the root is detached, ex: when a fragment is removed after
+ * {@code Fragment#onDestroyView()}.</p>
+ *
+ * <p>Must be used from the main thread.</p>
+ */
+final class SceneViewPool {
+    private static final Handler sMainHandler = new Handler(Looper.getMainLooper());
+
+    private final SparseArray<List<View>> mViews = new SparseArray<>();
+    private int mMaxSize;
+    private long mHitCount;
+    private long mMissCount;
+
+    /**
+     * @param maxSize The maximum number of views kept per layout, 0 to disable the pool.
+     */
+    void setMaxSize(int maxSize) {
+        if (maxSize < 0) {
+            throw new RuntimeException("Invalid pool size: " + maxSize);
+        }
+        mMaxSize = maxSize;
+        for (int i = 0; i < mViews.size(); ++i) {
+            List<View> views = mViews.valueAt(i);
+            while (views.size() > maxSize) {
+                views.remove(views.size() - 1);
+            }
+        }
+    }
+
+    /**
+     * @return A view of the layout created with the context of the root, inflated if
+     * the pool has none.
+     */
+    @NonNull
+    View obtain(@NonNull LayoutInflater inflater,
+                @LayoutRes int layout,
+                @NonNull ViewGroup root) {
+        if (mMaxSize > 0) {
+            View view = take(layout, inflater.getContext());
+            if (view != null) {
+                mHitCount++;
+                return view;
+            }
+            mMissCount++;
+        }
+        MetricsSink sink = SceneManager.getMetricsSink();
+        long start = sink == null ? 0 : System.nanoTime();
+        View view = inflater.inflate(layout, root, false);
+        if (sink != null) {
+            sink.onSceneInflated(layout, System.nanoTime() - start);
+        }
+        view.setTag(R.id.coffeescene_scene_layout, layout);
+        return view;
+    }
+
+    /**
+     * @return A view of the layout created with the context of the inflater, null if
+     * the pool has none. Used before inflating a layout in background.
+     */
+    @Nullable
+    View obtainPooled(@NonNull LayoutInflater inflater, @LayoutRes int layout) {
+        if (mMaxSize == 0) {
+            return null;
+        }
+        View view = take(layout, inflater.getContext());
+        if (view != null) {
+            mHitCount++;
+        } else {
+            mMissCount++;
+        }
+        return view;
+    }
+
+    @Nullable
+    private View take(@LayoutRes int layout, @NonNull Context context) {
+        List<View> views = mViews.get(layout);
+        if (views == null) {
+            return null;
+        }
+        dropDeadViews(views);
+        for (int i = views.size() - 1; i >= 0; --i) {
+            View view = views.get(i);
+            if (view.getContext() == context) {
+                views.remove(i);
+                reset(view);
+                return view;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Put back the views of released scenes, once their root is detached from its window.
+     *
+     * @param root The root of the views, null if they have no parent.
+     */
+    void recycleWhenDetached(@Nullable ViewGroup root, @NonNull List<View> views) {
+        if (mMaxSize == 0 || views.isEmpty()) {
+            return;
+        }
+        if (root != null && ViewCompat.isAttachedToWindow(root)) {
+            root.addOnAttachStateChangeListener(new RecycleOnDetach(this, root, views));
+            return;
+        }
+        for (int i = 0; i < views.size(); ++i) {
+            recycle(views.get(i));
+        }
+    }
+
+    /**
+     * Put back the view of a released scene, it is removed from its parent.
+     * The oldest view of the layout is dropped if its pool is full.
+     */
+    void recycle(@NonNull View view) {
+        Object layout = view.getTag(R.id.coffeescene_scene_layout);
+        if (mMaxSize == 0 || !(layout instanceof Integer)) {
+            return; // not inflated from a layout of the annotations
+        }
+        List<View> views = mViews.get((Integer) layout);
+        if (views == null) {
+            views = new ArrayList<>(mMaxSize);
+            mViews.put((Integer) layout, views);
+        }
+        if (isDead(view.getContext())) {
+            return; // would leak its activity
+        }
+        dropDeadViews(views);
+        if (views.size() == mMaxSize) {
+            views.remove(0); // the oldest, ex: created by a previous configuration
+        }
+        view.animate().cancel();
+        // The listener references the transition of the released scenes
+        view.setTag(R.id.coffeescene_animation_listener, null);
+        ViewGroup parent = (ViewGroup) view.getParent();
+        if (parent != null) {
+            parent.removeView(view);
+        }
+        views.add(view);
+    }
+
+    /**
+     * Drop the views of the finishing or destroyed activities.
+     */
+    void evictDead() {
+        for (int i = 0; i < mViews.size(); ++i) {
+            dropDeadViews(mViews.valueAt(i));
+        }
+    }
+
+    private static void dropDeadViews(@NonNull List<View> views) {
+        for (int i = views.size() - 1; i >= 0; --i) {
+            if (isDead(views.get(i).getContext())) {
+                views.remove(i);
+            }
+        }
+    }
+
+    /**
+     * @return true if the context wraps an activity that is finishing or destroyed.
+     */
+    private static boolean isDead(@Nullable Context context) {
+        while (context != null) {
+            if (context instanceof Activity) {
+                Activity activity = (Activity) context;
+                return activity.isFinishing() || isDestroyed(activity);
+            }
+            context = context instanceof ContextWrapper
+                    ? ((ContextWrapper) context).getBaseContext() : null;
+        }
+        return false;
+    }
+
+    @TargetApi(Build.VERSION_CODES.JELLY_BEAN_MR1)
+    private static boolean isDestroyed(@NonNull Activity activity) {
+        return Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN_MR1
+                && activity.isDestroyed();
+    }
+
+    /**
+     * Drop the views created with a context, or with a wrapper of this context.
+     */
+    void evict(@NonNull Context context) {
+        for (int i = 0; i < mViews.size(); ++i) {
+            List<View> views = mViews.valueAt(i);
+            for (int j = views.size() - 1; j >= 0; --j) {
+                if (isWrapping(views.get(j).getContext(), context)) {
+                    views.remove(j);
+                }
+            }
+        }
+    }
+
+    private static boolean isWrapping(@Nullable Context context, @NonNull Context base) {
+        while (context != null) {
+            if (context == base) {
+                return true;
+            }
+            context = context instanceof ContextWrapper
+                    ? ((ContextWrapper) context).getBaseContext() : null;
+        }
+        return false;
+    }
+
+    /**
+     * Undo the changes of the animation adapters.
+     */
+    private static void reset(@NonNull View view) {
+        view.setAlpha(1f);
+        view.setTranslationX(0f);
+        view.setEnabled(true);
+        view.setVisibility(View.VISIBLE);
+    }
+
+    /**
+     * Recycles the views of a root once it is detached. The views are removed after
+     * the detach: a view group must not lose its children while it dispatches it.
+     */
+    private static final class RecycleOnDetach
+            implements View.OnAttachStateChangeListener, Runnable {
+        private final @NonNull SceneViewPool mPool;
+        private final @NonNull ViewGroup mRoot;
+        private final @NonNull List<View> mViews;
+
+        RecycleOnDetach(@NonNull SceneViewPool pool,
+                        @NonNull ViewGroup root,
+                        @NonNull List<View> views) {
+            mPool = pool;
+            mRoot = root;
+            mViews = views;
+        }
+
+        @Override
+        public void onViewAttachedToWindow(View v) {
+        }
+
+        @Override
+        public void onViewDetachedFromWindow(View v) {
+            mRoot.removeOnAttachStateChangeListener(this);
+            sMainHandler.post(this);
+        }
+
+        @Override
+        public void run() {
+            if (ViewCompat.isAttachedToWindow(mRoot)) {
+                return; // attached again, the released views stay in the root
+            }
+            for (int i = 0; i < mViews.size(); ++i) {
+                View view = mViews.get(i);
+                if (view.getParent() == mRoot) {
+                    mPool.recycle(view);
+                }
+            }
+        }
+    }
+
+    long getHitCount() {
+        return mHitCount;
+    }
+
+    long getMissCount() {
+        return mMissCount;
+    }
+}
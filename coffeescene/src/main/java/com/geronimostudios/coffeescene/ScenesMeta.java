@@ -1,67 +1,445 @@
 package com.geronimostudios.coffeescene;
 
+import android.os.Handler;
+import android.os.Looper;
 import android.support.annotation.NonNull;
 import android.support.annotation.Nullable;
 import android.support.v4.util.Pair;
 import android.util.SparseArray;
+import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
+import android.view.ViewStub;
 
 import com.geronimostudios.coffeescene.animations.AnimationAdapter;
+import com.geronimostudios.coffeescene.animations.SceneTransition;
 import com.geronimostudios.coffeescene.animations.ScenesParams;
-import com.geronimostudios.coffeescene.annotations.Scene;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.Executor;
 
 /**
  * Contains data about a {@link com.geronimostudios.coffeescene.annotations.CoffeeScene}
  */
 final class ScenesMeta {
+    private static final Handler sMainHandler = new Handler(Looper.getMainLooper());
+    private static final Listener[] NO_LISTENERS = new Listener[0];
+
     private @NonNull AnimationAdapter mSceneAnimationAdapter;
     private @NonNull SparseArray<List<View>> mScenesIdsToViews;
-    private Listener mListener;
+    /**
+     * Copy-on-write: a switch iterates the array while a listener adds or removes another.
+     */
+    private volatile @NonNull Listener[] mListeners;
+
+    private volatile @Nullable ListenerQueue mListenerQueue;
+
+    // Transition of the last switch, only tracked for a TransitionListener, metrics or tracing
+    private @Nullable SceneTransition mTransition;
+    private int mTransitionSceneId = Integer.MIN_VALUE;
+    private long mTransitionStartNanos;
+    private boolean mTransitionAnimated;
     private @Nullable ScenesParams mScenesParams;
-    private int mCurrentSceneId = Integer.MIN_VALUE;
+    private volatile int mCurrentSceneId = Integer.MIN_VALUE;
+    private int mFirstSceneId = Integer.MIN_VALUE;
+    private @Nullable SceneController mController;
+    private @Nullable Class<?> mHolderClass;
+    private @Nullable ViewGroup mRoot;
+
+    // Lazy scenes created with the annotations, in the declaration order
+    private @Nullable LayoutInflater mInflater;
+    private @Nullable SceneViewPool mViewPool;
+    private @Nullable int[] mLazyScenes;
+    private @Nullable int[] mLazyLayouts;
+    private @Nullable View[] mLazyViews;
+    private int mFirstChildIndex;
+    private int mPendingCount;
+    private @Nullable AsyncSceneInflater mAsyncInflater;
+    private @Nullable boolean[] mAsyncRequested;
+    private int mQueuedSceneId = Integer.MIN_VALUE;
+    private boolean mQueuedAnimate;
+
+    // Lazy scenes created with a SceneCreator
+    private @Nullable SparseArray<List<ViewStub>> mPendingStubs;
 
+    // Switch requested from another thread, guarded by this
+    private int mPostedSceneId = Integer.MIN_VALUE;
+    private boolean mPostedAnimate;
+    private @Nullable Runnable mPostedTask;
+
+    // Switch coalesced until the next frame
+    private int mPendingSceneId = Integer.MIN_VALUE;
+    private boolean mPendingAnimate;
+    private @Nullable FrameScheduler.FrameTask mPendingTask;
+
+    /**
+     * @param table The scenes declared by the class of the reference.
+     * @param views The views inflated for each scene, null if the scene is inflated lazily.
+     */
     ScenesMeta(@NonNull ViewGroup root,
+               @NonNull LayoutInflater inflater,
+               @NonNull SceneViewPool viewPool,
                @NonNull AnimationAdapter sceneAnimationAdapter,
-               Scene[] scenes,
+               @NonNull SceneTable table,
+               View[] views,
                @Nullable Listener listener) {
         mSceneAnimationAdapter = sceneAnimationAdapter;
-        mListener = listener;
-        mScenesIdsToViews = new SparseArray<>();
-        for (int i = 0; i < scenes.length; ++i) {
-            int sceneId = scenes[i].scene();
-            List<View> list = mScenesIdsToViews.get(sceneId);
-            if (list == null) {
-                list = new ArrayList<>();
-                assertValidScene(sceneId, list);
-                mScenesIdsToViews.put(sceneId, list);
+        mListeners = listener == null ? NO_LISTENERS : new Listener[] {listener};
+        mFirstSceneId = table.mFirst;
+        // The scene ids are sorted and validated by the table
+        mScenesIdsToViews = new SparseArray<>(table.mDistinctScenes.length);
+        for (int i = 0; i < table.mDistinctScenes.length; ++i) {
+            mScenesIdsToViews.append(
+                    table.mDistinctScenes[i],
+                    new ArrayList<View>(table.mSceneSizes[i])
+            );
+        }
+        int inflatedCount = 0;
+        for (int i = 0; i < views.length; ++i) {
+            if (views[i] != null) {
+                mScenesIdsToViews.get(table.mScenes[i]).add(views[i]);
+                inflatedCount++;
             }
-            list.add(root.getChildAt(i));
+        }
+        if (inflatedCount < views.length) {
+            mRoot = root;
+            mInflater = inflater;
+            mViewPool = viewPool;
+            mLazyScenes = table.mScenes;
+            mLazyLayouts = table.mLayouts;
+            mLazyViews = views;
+            mPendingCount = views.length - inflatedCount;
+            mFirstChildIndex = root.getChildCount() - inflatedCount;
         }
         mScenesParams = mSceneAnimationAdapter.generateScenesParams(mScenesIdsToViews);
     }
 
+    /**
+     * @param lazy true if the {@link ViewStub} of the scenes are inflated lazily.
+     */
     ScenesMeta(@NonNull AnimationAdapter sceneAnimationAdapter,
                @NonNull List<Pair<Integer, View>> scenesIds,
-               @Nullable Listener listener) {
+               @Nullable Listener listener,
+               boolean lazy) {
         mSceneAnimationAdapter = sceneAnimationAdapter;
-        mListener = listener;
+        mListeners = listener == null ? NO_LISTENERS : new Listener[] {listener};
         mScenesIdsToViews = new SparseArray<>();
         for (Pair<Integer, View> pair : scenesIds) {
-            List<View> list = mScenesIdsToViews.get(pair.first);
-            if (list == null) {
-                list = new ArrayList<>();
-                assertValidScene(pair.first, list);
-                mScenesIdsToViews.put(pair.first, list);
+            List<View> list = obtainSceneViews(pair.first);
+            if (lazy && pair.second instanceof ViewStub) {
+                if (mPendingStubs == null) {
+                    mPendingStubs = new SparseArray<>();
+                }
+                List<ViewStub> stubs = mPendingStubs.get(pair.first);
+                if (stubs == null) {
+                    stubs = new ArrayList<>();
+                    mPendingStubs.put(pair.first, stubs);
+                }
+                stubs.add((ViewStub) pair.second);
+            } else {
+                list.add(pair.second);
             }
-            list.add(pair.second);
         }
         mScenesParams = mSceneAnimationAdapter.generateScenesParams(mScenesIdsToViews);
     }
 
+    @NonNull
+    private List<View> obtainSceneViews(int sceneId) {
+        List<View> list = mScenesIdsToViews.get(sceneId);
+        if (list == null) {
+            list = new ArrayList<>();
+            assertValidScene(sceneId, list);
+            mScenesIdsToViews.put(sceneId, list);
+        }
+        return list;
+    }
+
+    /**
+     * <p>Inflate the views of a lazy scene if they have not been inflated yet.</p>
+     *
+     * <p>The new views are {@link View#GONE}, they are added to the lists of
+     * {@link #getScenesIdsToViews()} so the {@link ScenesParams} stay valid.</p>
+     */
+    void ensureInflated(int sceneId) {
+        if (mPendingCount > 0) {
+            inflateLazyScenes(sceneId);
+        }
+        if (mPendingStubs != null) {
+            inflatePendingStubs(sceneId);
+        }
+    }
+
+    private void inflateLazyScenes(int sceneId) {
+        if (mLazyScenes == null || mInflater == null || mViewPool == null || mRoot == null) {
+            return;
+        }
+        int[] scenes = mLazyScenes;
+        int[] layouts = mLazyLayouts;
+        for (int i = 0; i < scenes.length && mPendingCount > 0; ++i) {
+            if (mLazyViews[i] == null && scenes[i] == sceneId) {
+                boolean trace = SceneTrace.isEnabled();
+                if (trace) {
+                    SceneTrace.begin(SceneTrace.INFLATE, mHolderClass, sceneId);
+                }
+                attachLazyView(i, mViewPool.obtain(mInflater, layouts[i], mRoot));
+                if (trace) {
+                    SceneTrace.end();
+                }
+            }
+        }
+    }
+
+    /**
+     * Add the view of a lazy scene into the root at its declaration index.
+     */
+    private void attachLazyView(int lazyIndex, @NonNull View view) {
+        int index = mFirstChildIndex;
+        for (int i = 0; i < lazyIndex; ++i) {
+            if (mLazyViews[i] != null) {
+                index++;
+            }
+        }
+        view.setVisibility(View.GONE);
+        mRoot.addView(view, index);
+        mLazyViews[lazyIndex] = view;
+        mScenesIdsToViews.get(mLazyScenes[lazyIndex]).add(view);
+        if (--mPendingCount == 0) {
+            mLazyScenes = null;
+            mLazyLayouts = null;
+            mLazyViews = null;
+            mInflater = null;
+            mViewPool = null;
+            mAsyncInflater = null;
+            mAsyncRequested = null;
+        }
+    }
+
+    private boolean hasPendingViews(int sceneId) {
+        if (mLazyScenes == null) {
+            return false;
+        }
+        for (int i = 0; i < mLazyScenes.length; ++i) {
+            if (mLazyViews[i] == null && mLazyScenes[i] == sceneId) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Inflate the lazy scenes in background once the first frame has been drawn.
+     * See {@link com.geronimostudios.coffeescene.annotations.CoffeeScene#async()}.
+     *
+     * @param asyncInflater The inflater shared by the holders.
+     */
+    void preInflateAfterFirstFrame(@NonNull AsyncSceneInflater asyncInflater) {
+        if (mRoot == null || mLazyScenes == null) {
+            return;
+        }
+        mAsyncInflater = asyncInflater;
+        mAsyncRequested = new boolean[mLazyScenes.length];
+        // Runnables posted before the first traversal are executed once it is done
+        mRoot.post(new Runnable() {
+            @Override
+            public void run() {
+                if (mLazyScenes == null) {
+                    return;
+                }
+                for (int i = 0; i < mLazyScenes.length; ++i) {
+                    requestAsyncInflation(i, false);
+                }
+            }
+        });
+    }
+
+    /**
+     * <p>Queue a scene switch if the views of the scene are being inflated in background,
+     * the last queued switch is done by {@link SceneManager} once they have been attached.</p>
+     *
+     * <p>Any call cancels the previously queued switch.</p>
+     *
+     * @return true if the switch has been queued.
+     */
+    boolean queueUntilInflated(int sceneId, boolean animate) {
+        mQueuedSceneId = Integer.MIN_VALUE;
+        if (mAsyncRequested == null || !hasPendingViews(sceneId)) {
+            return false;
+        }
+        for (int i = 0; i < mLazyScenes.length; ++i) {
+            if (mLazyScenes[i] == sceneId) {
+                requestAsyncInflation(i, true);
+            }
+        }
+        mQueuedSceneId = sceneId;
+        mQueuedAnimate = animate;
+        return true;
+    }
+
+    /**
+     * @param urgent true if a switch waits for the scene, it is inflated first.
+     */
+    private void requestAsyncInflation(int lazyIndex, boolean urgent) {
+        if (mLazyViews[lazyIndex] != null || (mAsyncRequested[lazyIndex] && !urgent)) {
+            return;
+        }
+        mAsyncRequested[lazyIndex] = true;
+        mAsyncInflater.request(this, lazyIndex, urgent);
+    }
+
+    /**
+     * Called by the {@link AsyncSceneInflater} before inflating a lazy scene in background.
+     * The view is taken from the pool if possible.
+     *
+     * @return true if the view still has to be inflated.
+     */
+    boolean needsAsyncInflation(int lazyIndex) {
+        if (mLazyViews == null || mLazyViews[lazyIndex] != null) {
+            return false;
+        }
+        View view = mViewPool.obtainPooled(mInflater, mLazyLayouts[lazyIndex]);
+        if (view != null) {
+            onAsyncInflated(lazyIndex, view);
+            return false;
+        }
+        return true;
+    }
+
+    @Nullable
+    ViewGroup getRoot() {
+        return mRoot;
+    }
+
+    int getLazyLayout(int lazyIndex) {
+        return mLazyLayouts[lazyIndex];
+    }
+
+    void onAsyncInflated(int lazyIndex, @NonNull View view) {
+        if (mLazyViews == null || mLazyViews[lazyIndex] != null) {
+            return; // released or already inflated
+        }
+        attachLazyView(lazyIndex, view);
+        if (mQueuedSceneId != Integer.MIN_VALUE && !hasPendingViews(mQueuedSceneId)) {
+            int sceneId = mQueuedSceneId;
+            mQueuedSceneId = Integer.MIN_VALUE;
+            SceneManager.doChangeScene(this, sceneId, mQueuedAnimate);
+        }
+    }
+
+    private void inflatePendingStubs(int sceneId) {
+        List<ViewStub> stubs = mPendingStubs.get(sceneId);
+        if (stubs == null) {
+            return;
+        }
+        List<View> list = mScenesIdsToViews.get(sceneId);
+        MetricsSink sink = SceneManager.getMetricsSink();
+        boolean trace = SceneTrace.isEnabled();
+        for (int i = 0; i < stubs.size(); ++i) {
+            ViewStub stub = stubs.get(i);
+            if (trace) {
+                SceneTrace.begin(SceneTrace.INFLATE, mHolderClass, sceneId);
+            }
+            long start = sink == null ? 0 : System.nanoTime();
+            View view = stub.inflate();
+            if (sink != null) {
+                sink.onSceneInflated(stub.getLayoutResource(), System.nanoTime() - start);
+            }
+            if (trace) {
+                SceneTrace.end();
+            }
+            view.setVisibility(View.GONE);
+            list.add(view);
+        }
+        mPendingStubs.remove(sceneId);
+        if (mPendingStubs.size() == 0) {
+            mPendingStubs = null;
+        }
+    }
+
+    /**
+     * @param holderClass The class of the activity, view or fragment, for the trace sections.
+     */
+    void setHolderClass(@NonNull Class<?> holderClass) {
+        mHolderClass = holderClass;
+    }
+
+    @Nullable
+    Class<?> getHolderClass() {
+        return mHolderClass;
+    }
+
+    /**
+     * Keep this {@link ScenesMeta} alive as long as the root view of its scenes.
+     * See {@link ScenesRegistry}. Several holders can share a root: the tag of the root
+     * holds the list of their {@link ScenesMeta}.
+     */
+    void attachTo(@NonNull ViewGroup root) {
+        mRoot = root;
+        Object tag = root.getTag(R.id.coffeescene_scenes_meta);
+        List<ScenesMeta> metas;
+        if (tag instanceof List) {
+            //noinspection unchecked
+            metas = (List<ScenesMeta>) tag;
+        } else {
+            metas = new ArrayList<>(1);
+            root.setTag(R.id.coffeescene_scenes_meta, metas);
+        }
+        if (!metas.contains(this)) {
+            metas.add(this);
+        }
+    }
+
+    /**
+     * Give the views of the scenes back to a {@link SceneViewPool}, before {@link #detach()}.
+     * The views of a root still attached to its window are recycled once it is detached.
+     */
+    void recycleViews(@NonNull SceneViewPool viewPool) {
+        List<View> released = new ArrayList<>();
+        for (int i = 0; i < mScenesIdsToViews.size(); ++i) {
+            released.addAll(mScenesIdsToViews.valueAt(i));
+        }
+        viewPool.recycleWhenDetached(mRoot, released);
+    }
+
+    /**
+     * Release the root view and the views of the scenes.
+     */
+    void detach() {
+        if (mRoot != null) {
+            Object tag = mRoot.getTag(R.id.coffeescene_scenes_meta);
+            if (tag instanceof List) {
+                List<?> metas = (List<?>) tag;
+                metas.remove(this);
+                if (metas.isEmpty()) {
+                    mRoot.setTag(R.id.coffeescene_scenes_meta, null);
+                }
+            }
+        }
+        mRoot = null;
+        mScenesIdsToViews.clear();
+        mLazyScenes = null;
+        mLazyLayouts = null;
+        mLazyViews = null;
+        mInflater = null;
+        mViewPool = null;
+        mPendingCount = 0;
+        if (mAsyncInflater != null) {
+            mAsyncInflater.cancel(this);
+            mAsyncInflater = null;
+        }
+        mAsyncRequested = null;
+        mQueuedSceneId = Integer.MIN_VALUE;
+        mPendingStubs = null;
+        cancelPendingScene();
+        mListeners = NO_LISTENERS;
+        mTransitionSceneId = Integer.MIN_VALUE;
+        if (mController != null) {
+            mController.onReleased();
+            mController = null;
+        }
+    }
+
     private void assertValidScene(int sceneId, List<View> views) {
         if (sceneId == Integer.MIN_VALUE) {
             throw new RuntimeException("Invalid scene id, do not use Integer.MIN_VALUE.");
@@ -83,9 +461,287 @@ final class ScenesMeta {
         return mScenesParams;
     }
 
+    @NonNull
+    Listener[] getListeners() {
+        return mListeners;
+    }
+
+    /**
+     * @return The queue delivering the events on an executor, null to deliver them inline.
+     */
     @Nullable
-    Listener getListener() {
-        return mListener;
+    ListenerQueue getListenerQueue() {
+        return mListenerQueue;
+    }
+
+    /**
+     * The queue is kept while it has pending events: they are delivered before the next
+     * ones, on the new executor or inline.
+     */
+    void setListenerExecutor(@Nullable Executor executor) {
+        ListenerQueue queue = mListenerQueue;
+        if (queue == null) {
+            mListenerQueue = executor == null ? null : new ListenerQueue(executor);
+        } else if (executor != null) {
+            queue.setExecutor(executor);
+        } else if (queue.isIdle()) {
+            mListenerQueue = null;
+        } else {
+            queue.setExecutor(ListenerQueue.DIRECT);
+        }
+    }
+
+    synchronized void addListener(@NonNull Listener listener) {
+        Listener[] listeners = mListeners;
+        for (Listener l : listeners) {
+            if (l == listener) {
+                return; // already added
+            }
+        }
+        Listener[] copy = Arrays.copyOf(listeners, listeners.length + 1);
+        copy[listeners.length] = listener;
+        mListeners = copy;
+    }
+
+    /**
+     * Start tracking the animations of a switch, the transition that is running
+     * is canceled. See {@link #startTransition(int)}.
+     *
+     * @return false if no {@link TransitionListener}, no {@link MetricsSink} and no
+     * tracing are enabled, nothing is tracked.
+     */
+    boolean beginTransition() {
+        Listener[] listeners = mListeners;
+        MetricsSink sink = SceneManager.getMetricsSink();
+        boolean trace = SceneTrace.isEnabled();
+        if (sink == null && !trace && !hasTransitionListener(listeners)) {
+            mTransitionSceneId = Integer.MIN_VALUE;
+            return false;
+        }
+        if (mTransitionSceneId != Integer.MIN_VALUE) {
+            int canceledSceneId = mTransitionSceneId;
+            mTransitionSceneId = Integer.MIN_VALUE;
+            if (trace) {
+                SceneTrace.begin(SceneTrace.TRANSITION_CANCEL, mHolderClass, canceledSceneId);
+            }
+            if (sink != null && mTransitionAnimated) {
+                sink.onAnimationInterrupted(mSceneAnimationAdapter);
+            }
+            for (Listener listener : listeners) {
+                if (listener instanceof TransitionListener) {
+                    ((TransitionListener) listener).onTransitionCanceled(canceledSceneId);
+                }
+            }
+            if (trace) {
+                SceneTrace.end();
+            }
+        }
+        if (mTransition == null) {
+            mTransition = new SceneTransition(new Runnable() {
+                @Override
+                public void run() {
+                    endTransition();
+                }
+            });
+        }
+        mTransition.begin();
+        mTransitionStartNanos = sink == null ? 0 : System.nanoTime();
+        return true;
+    }
+
+    /**
+     * Called right after the adapter: the animations started later, ex: by a switch
+     * requested from a listener, do not belong to this transition.
+     */
+    void endTransitionStart() {
+        if (mTransition != null) {
+            mTransition.end();
+        }
+    }
+
+    /**
+     * Called once the listeners have been notified of the switch.
+     */
+    void startTransition(int sceneId) {
+        if (mTransition == null || sceneId != mCurrentSceneId) {
+            return; // not tracked, or replaced by a switch requested from a listener
+        }
+        boolean done = !mTransition.isRunning();
+        mTransitionSceneId = sceneId;
+        mTransitionAnimated = !done;
+        for (Listener listener : mListeners) {
+            if (listener instanceof TransitionListener) {
+                ((TransitionListener) listener).onTransitionStarted(sceneId);
+            }
+        }
+        if (done) {
+            endTransition();
+        }
+    }
+
+    private void endTransition() {
+        int sceneId = mTransitionSceneId;
+        if (sceneId == Integer.MIN_VALUE) {
+            return; // canceled or released
+        }
+        mTransitionSceneId = Integer.MIN_VALUE;
+        boolean trace = SceneTrace.isEnabled();
+        if (trace) {
+            SceneTrace.begin(SceneTrace.TRANSITION_END, mHolderClass, sceneId);
+        }
+        MetricsSink sink = SceneManager.getMetricsSink();
+        if (sink != null && mTransitionAnimated && mTransitionStartNanos != 0) {
+            long duration = System.nanoTime() - mTransitionStartNanos;
+            sink.onAnimationEnded(mSceneAnimationAdapter, duration);
+        }
+        for (Listener listener : mListeners) {
+            if (listener instanceof TransitionListener) {
+                ((TransitionListener) listener).onTransitionEnded(sceneId);
+            }
+        }
+        if (trace) {
+            SceneTrace.end();
+        }
+    }
+
+    private static boolean hasTransitionListener(@NonNull Listener[] listeners) {
+        for (Listener listener : listeners) {
+            if (listener instanceof TransitionListener) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    synchronized void removeListener(@NonNull Listener listener) {
+        Listener[] listeners = mListeners;
+        for (int i = 0; i < listeners.length; ++i) {
+            if (listeners[i] == listener) {
+                Listener[] copy = new Listener[listeners.length - 1];
+                System.arraycopy(listeners, 0, copy, 0, i);
+                System.arraycopy(listeners, i + 1, copy, i, copy.length - i);
+                mListeners = copy.length == 0 ? NO_LISTENERS : copy;
+                return;
+            }
+        }
+    }
+
+    /**
+     * Request a switch from another thread, it is done on the main thread.
+     * The switches requested before the main thread runs the task are coalesced:
+     * only the last one is done. Does not allocate once the task has been created.
+     */
+    void postToMainThread(int sceneId, boolean animate) {
+        synchronized (this) {
+            boolean posted = mPostedSceneId != Integer.MIN_VALUE;
+            mPostedSceneId = sceneId;
+            mPostedAnimate = animate;
+            if (posted) {
+                return;
+            }
+            if (mPostedTask == null) {
+                mPostedTask = new Runnable() {
+                    @Override
+                    public void run() {
+                        int sceneId;
+                        boolean animate;
+                        synchronized (ScenesMeta.this) {
+                            sceneId = mPostedSceneId;
+                            animate = mPostedAnimate;
+                            mPostedSceneId = Integer.MIN_VALUE;
+                        }
+                        if (sceneId != Integer.MIN_VALUE && mRoot != null) {
+                            // Not canceled by a switch of the main thread, not released
+                            SceneManager.requestSceneOnMainThread(
+                                    ScenesMeta.this, sceneId, animate);
+                        }
+                    }
+                };
+            }
+        }
+        sMainHandler.post(mPostedTask);
+    }
+
+    /**
+     * @return The scene that will be displayed once the pending or queued switches
+     * are done, the current scene if there is none.
+     */
+    int getRequestedSceneId() {
+        if (mPendingSceneId != Integer.MIN_VALUE) {
+            return mPendingSceneId;
+        }
+        if (mQueuedSceneId != Integer.MIN_VALUE) {
+            return mQueuedSceneId;
+        }
+        return mCurrentSceneId;
+    }
+
+    /**
+     * Switch to a scene at the next frame. The switches requested before the frame are
+     * coalesced: only the last one is done.
+     */
+    void postSceneAtNextFrame(int sceneId, boolean animate) {
+        boolean posted = mPendingSceneId != Integer.MIN_VALUE;
+        mPendingSceneId = sceneId;
+        mPendingAnimate = animate;
+        if (posted) {
+            return;
+        }
+        if (mPendingTask == null) {
+            mPendingTask = new FrameScheduler.FrameTask() {
+                @Override
+                public void run() {
+                    int pendingSceneId = mPendingSceneId;
+                    mPendingSceneId = Integer.MIN_VALUE;
+                    if (pendingSceneId != Integer.MIN_VALUE) {
+                        SceneManager.doChangeScene(
+                                ScenesMeta.this, pendingSceneId, mPendingAnimate);
+                    }
+                }
+            };
+        }
+        FrameScheduler.post(mPendingTask);
+    }
+
+    void cancelPendingScene() {
+        cancelPostedScene();
+        mPendingSceneId = Integer.MIN_VALUE;
+        if (mPendingTask != null) {
+            FrameScheduler.cancel(mPendingTask);
+        }
+    }
+
+    /**
+     * Drop the switch requested from another thread, a switch requested on the main
+     * thread is more recent.
+     */
+    void cancelPostedScene() {
+        synchronized (this) {
+            if (mPostedSceneId == Integer.MIN_VALUE) {
+                return;
+            }
+            mPostedSceneId = Integer.MIN_VALUE;
+        }
+        sMainHandler.removeCallbacks(mPostedTask);
+    }
+
+    /**
+     * @return The controller of these scenes, created once.
+     */
+    @NonNull
+    SceneController getController(@NonNull Object reference) {
+        if (mController == null) {
+            mController = new SceneController(reference, this);
+        }
+        return mController;
+    }
+
+    int getFirstSceneId() {
+        return mFirstSceneId;
+    }
+
+    void setFirstSceneId(int firstSceneId) {
+        mFirstSceneId = firstSceneId;
     }
 
     public void setCurrentSceneId(int currentSceneId) {
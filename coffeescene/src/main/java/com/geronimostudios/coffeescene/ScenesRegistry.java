@@ -0,0 +1,206 @@
+package com.geronimostudios.coffeescene;
+
+import android.os.Looper;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+
+/**
+ * <p>A hash table that links a reference (activity, fragment, view group...)
+ * to its {@link ScenesMeta}.</p>
+ *
+ * <p>The references are compared by identity and are weakly held, the entries
+ * whose reference has been collected are purged through a {@link ReferenceQueue}
+ * on the next access. Lookups do not allocate.</p>
+ *
+ * <p>The {@link ScenesMeta} are weakly held too: they are kept alive by the root
+ * view of their scenes (see {@link ScenesMeta#attachTo(android.view.ViewGroup)}),
+ * even if several references share the same root.
+ * Since the scene views reference their holder (parent view or activity context),
+ * a strong value would keep the reference reachable and the entry would never
+ * be purged.</p>
+ *
+ * <p>The registry is synchronized: {@link SceneManager#scene(Object, int)} can look up
+ * the scenes from any thread. The entries are only purged on the main thread since
+ * the purged {@link ScenesMeta} are detached from their views.</p>
+ */
+final class ScenesRegistry {
+    private static final int INITIAL_CAPACITY = 16;
+    private static final float LOAD_FACTOR = 0.75f;
+
+    private final ReferenceQueue<Object> mQueue = new ReferenceQueue<>();
+    private Entry[] mTable = new Entry[INITIAL_CAPACITY];
+    private int mSize;
+    private long mPurgedCount;
+
+    /**
+     * @return the {@link ScenesMeta} linked to the reference or null.
+     */
+    @Nullable
+    synchronized ScenesMeta get(@NonNull Object reference) {
+        purge();
+        int hash = hash(reference);
+        for (Entry e = mTable[indexFor(hash, mTable.length)]; e != null; e = e.mNext) {
+            if (e.mHash == hash && e.get() == reference) {
+                return e.mMeta.get();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Link a reference to a {@link ScenesMeta}, the previous one is replaced.
+     *
+     * @return the replaced {@link ScenesMeta} or null, it has to be detached.
+     */
+    @Nullable
+    synchronized ScenesMeta put(@NonNull Object reference, @NonNull ScenesMeta meta) {
+        purge();
+        int hash = hash(reference);
+        int index = indexFor(hash, mTable.length);
+        for (Entry e = mTable[index]; e != null; e = e.mNext) {
+            if (e.mHash == hash && e.get() == reference) {
+                ScenesMeta previous = e.mMeta.get();
+                e.mMeta = new WeakReference<>(meta);
+                return previous;
+            }
+        }
+        mTable[index] = new Entry(reference, meta, hash, mTable[index], mQueue);
+        if (++mSize > mTable.length * LOAD_FACTOR) {
+            resize(mTable.length * 2);
+        }
+        return null;
+    }
+
+    /**
+     * @return the removed {@link ScenesMeta} or null.
+     */
+    @Nullable
+    synchronized ScenesMeta remove(@NonNull Object reference) {
+        purge();
+        int hash = hash(reference);
+        int index = indexFor(hash, mTable.length);
+        Entry prev = null;
+        for (Entry e = mTable[index]; e != null; prev = e, e = e.mNext) {
+            if (e.mHash == hash && e.get() == reference) {
+                unlink(index, prev, e);
+                e.clear();
+                return e.mMeta.get();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Remove the entry of a reference only if it is linked to this {@link ScenesMeta}.
+     *
+     * @return true if the entry has been removed.
+     */
+    synchronized boolean remove(@NonNull Object reference, @NonNull ScenesMeta meta) {
+        purge();
+        int hash = hash(reference);
+        int index = indexFor(hash, mTable.length);
+        Entry prev = null;
+        for (Entry e = mTable[index]; e != null; prev = e, e = e.mNext) {
+            if (e.mHash == hash && e.get() == reference) {
+                if (e.mMeta.get() != meta) {
+                    return false;
+                }
+                unlink(index, prev, e);
+                e.clear();
+                return true;
+            }
+        }
+        return false;
+    }
+
+    synchronized int size() {
+        purge();
+        return mSize;
+    }
+
+    /**
+     * @return the number of entries that have been purged because their
+     * reference has been garbage collected.
+     */
+    synchronized long getPurgedCount() {
+        purge();
+        return mPurgedCount;
+    }
+
+    private void purge() {
+        if (Looper.myLooper() != Looper.getMainLooper()) {
+            return;
+        }
+        for (Reference<?> ref; (ref = mQueue.poll()) != null;) {
+            Entry entry = (Entry) ref;
+            int index = indexFor(entry.mHash, mTable.length);
+            Entry prev = null;
+            for (Entry e = mTable[index]; e != null; prev = e, e = e.mNext) {
+                if (e == entry) {
+                    unlink(index, prev, e);
+                    ScenesMeta meta = e.mMeta.get();
+                    if (meta != null) {
+                        meta.detach();
+                    }
+                    mPurgedCount++;
+                    break;
+                }
+            }
+        }
+    }
+
+    private void unlink(int index, @Nullable Entry prev, @NonNull Entry entry) {
+        if (prev == null) {
+            mTable[index] = entry.mNext;
+        } else {
+            prev.mNext = entry.mNext;
+        }
+        entry.mNext = null;
+        mSize--;
+    }
+
+    private void resize(int capacity) {
+        Entry[] table = new Entry[capacity];
+        for (Entry head : mTable) {
+            Entry e = head;
+            while (e != null) {
+                Entry next = e.mNext;
+                int index = indexFor(e.mHash, capacity);
+                e.mNext = table[index];
+                table[index] = e;
+                e = next;
+            }
+        }
+        mTable = table;
+    }
+
+    private static int hash(@NonNull Object reference) {
+        int h = System.identityHashCode(reference);
+        return h ^ (h >>> 16);
+    }
+
+    private static int indexFor(int hash, int length) {
+        return hash & (length - 1);
+    }
+
+    private static final class Entry extends WeakReference<Object> {
+        private final int mHash;
+        private WeakReference<ScenesMeta> mMeta;
+        private Entry mNext;
+
+        Entry(@NonNull Object reference,
+              @NonNull ScenesMeta meta,
+              int hash,
+              @Nullable Entry next,
+              @NonNull ReferenceQueue<Object> queue) {
+            super(reference, queue);
+            mMeta = new WeakReference<>(meta);
+            mHash = hash;
+            mNext = next;
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.geronimostudios.coffeescene;
+
+/**
+ * <p>A {@link Listener} that is also notified of the animations of the switches.
+ * Expensive work (ex: binding a list, loading images) can wait for
+ * {@link #onTransitionEnded(int)} instead of running during the animation frames.</p>
+ *
+ * <p>The transitions are tracked for the adapters of
+ * {@link com.geronimostudios.coffeescene.animations.SceneAnimations} and for
+ * {@link com.geronimostudios.coffeescene.animations.FadeAnimationAdapter}.
+ * With another adapter, a transition ends with the switch.</p>
+ *
+ * <p>The transition events are always delivered on the main thread, even if the
+ * {@link Listener} events are delivered on an executor.</p>
+ */
+public interface TransitionListener extends Listener {
+
+    /**
+     * This method is called when the animations to display a scene are started,
+     * after {@link #onSceneChanged(int)}, or after it has been queued if the listener
+     * events are delivered on an executor: {@link #onSceneChanged(int)} can then be
+     * delivered later, on another thread.
+     *
+     * @param sceneId the scene being displayed.
+     */
+    void onTransitionStarted(int sceneId);
+
+    /**
+     * This method is called when the animations to display a scene are done.
+     *
+     * @param sceneId the scene that is displayed.
+     */
+    void onTransitionEnded(int sceneId);
+
+    /**
+     * This method is called instead of {@link #onTransitionEnded(int)} when another switch
+     * is requested before the animations are done.
+     *
+     * @param sceneId the scene that was being displayed.
+     */
+    void onTransitionCanceled(int sceneId);
+}
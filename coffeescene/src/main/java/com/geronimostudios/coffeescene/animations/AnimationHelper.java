@@ -2,7 +2,13 @@ package com.geronimostudios.coffeescene.animations;
 
 import android.animation.Animator;
 import android.animation.AnimatorListenerAdapter;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.support.v4.view.ViewCompat;
 import android.view.View;
+import android.view.ViewPropertyAnimator;
+
+import com.geronimostudios.coffeescene.R;
 
 /**
  * This helper provides a few static methods for the animations.
@@ -15,29 +21,175 @@ final class AnimationHelper {
 
     /**
      * Do a smooth fade animation to show a view.
+     * A view that is not visible yet (ex: a lazy scene) fades in from transparent.
+     *
+     * @param adapter the adapter holding the configuration of the fade.
      */
-    static void showView(final View view) {
-        view.animate()
-                .alpha(1f)
-                .setListener(new AnimatorListenerAdapter() {
-                    @Override
-                    public void onAnimationStart(Animator animation) {
-                        view.setVisibility(View.VISIBLE);
-                    }
-                });
+    static void showView(final View view, @NonNull FadeAnimationAdapter adapter) {
+        ViewAnimationListener listener = cancelAnimations(view);
+        if (view.getVisibility() != View.VISIBLE) {
+            view.setAlpha(0f);
+        }
+        listener.prepare(true, View.VISIBLE, adapter.isToggleEnabled(), adapter.isHardwareLayer())
+                .apply();
+        listener.buildLayer();
+        fade(view, 1f, adapter).setListener(listener);
     }
 
     /**
      * Do a smooth fade animation to hide a view.
+     *
+     * @param adapter the adapter holding the configuration of the fade.
+     */
+    static void hideView(final View view, @NonNull FadeAnimationAdapter adapter) {
+        ViewAnimationListener listener = cancelAnimations(view);
+        listener.prepare(false, adapter.getHiddenVisibility(),
+                adapter.isToggleEnabled(), adapter.isHardwareLayer());
+        listener.buildLayer();
+        fade(view, 0f, adapter).setListener(listener);
+    }
+
+    /**
+     * The duration and the interpolator are always set: the {@link ViewPropertyAnimator}
+     * of a view keeps them from an animation to another.
+     */
+    private static ViewPropertyAnimator fade(@NonNull View view,
+                                             float alpha,
+                                             @NonNull FadeAnimationAdapter adapter) {
+        return view.animate()
+                .alpha(alpha)
+                .setDuration(adapter.getDuration())
+                .setInterpolator(adapter.getInterpolator());
+    }
+
+    /**
+     * <p>Cancel the running and pending animations of a view, before a new animation or
+     * a change without animation.</p>
+     *
+     * <p>{@link View#clearAnimation()} does not cancel the {@link View#animate()} animations:
+     * their listener would apply the visibility of a previous scene.</p>
+     *
+     * @return The listener of the animations of the view, created once per view.
+     */
+    @NonNull
+    static ViewAnimationListener cancelAnimations(@NonNull View view) {
+        ViewAnimationListener listener;
+        Object tag = view.getTag(R.id.coffeescene_animation_listener);
+        if (tag instanceof ViewAnimationListener) {
+            listener = (ViewAnimationListener) tag;
+        } else {
+            listener = new ViewAnimationListener(view);
+            view.setTag(R.id.coffeescene_animation_listener, listener);
+        }
+        view.animate().cancel();
+        // An animation canceled before its start does not call its listener
+        listener.releaseLayer();
+        return listener;
+    }
+
+    /**
+     * <p>Applies the visibility of a view at the end of the animation that hides it.
+     * The visibility is not applied if the animation is canceled: the view is animated
+     * again or changed by the adapter.</p>
+     *
+     * <p>The animation is tracked by the {@link SceneTransition} of the switch.</p>
+     *
+     * <p>Like {@link ViewPropertyAnimator#withLayer()}, that is not available before API 16,
+     * the view can be drawn in a hardware layer during the animation. The layer is built
+     * before the animation starts, not during its first frame. A layer set by the
+     * application is left untouched.</p>
      */
-    static void hideView(final View view) {
-        view.animate()
-                .alpha(0f)
-                .setListener(new AnimatorListenerAdapter() {
-                    @Override
-                    public void onAnimationEnd(Animator animation) {
-                        view.setVisibility(View.GONE);
-                    }
-                });
+    static final class ViewAnimationListener extends AnimatorListenerAdapter {
+        private final View mView;
+        private boolean mShow;
+        private int mVisibility;
+        private boolean mToggleEnabled;
+        private boolean mHardwareLayer;
+        private boolean mLayerSet;
+        private boolean mCanceled;
+        private @Nullable SceneTransition mTransition;
+        private int mTransitionGeneration;
+
+        private ViewAnimationListener(@NonNull View view) {
+            mView = view;
+        }
+
+        /**
+         * Prepare the next animation, once the previous one has been canceled.
+         *
+         * @param show true if the view is shown.
+         * @param visibility the visibility of the view at the end of the animation.
+         * @param toggleEnabled true to call {@link View#setEnabled(boolean)} too.
+         * @param hardwareLayer true to draw the view in a hardware layer during the animation.
+         */
+        ViewAnimationListener prepare(boolean show,
+                                      int visibility,
+                                      boolean toggleEnabled,
+                                      boolean hardwareLayer) {
+            mShow = show;
+            mVisibility = visibility;
+            mToggleEnabled = toggleEnabled;
+            mHardwareLayer = hardwareLayer;
+            mCanceled = false;
+            mTransition = SceneTransition.starting();
+            if (mTransition != null) {
+                mTransitionGeneration = mTransition.track();
+            }
+            return this;
+        }
+
+        /**
+         * Draw the view in a hardware layer until the end of the animation, if enabled
+         * by {@link #prepare(boolean, int, boolean, boolean)}. Called before the animation.
+         */
+        void buildLayer() {
+            if (!mHardwareLayer || mLayerSet || mView.getLayerType() != View.LAYER_TYPE_NONE) {
+                return;
+            }
+            mLayerSet = true;
+            mView.setLayerType(View.LAYER_TYPE_HARDWARE, null);
+            if (ViewCompat.isAttachedToWindow(mView)) {
+                mView.buildLayer();
+            }
+        }
+
+        /**
+         * Remove the hardware layer set by {@link #buildLayer()}.
+         */
+        void releaseLayer() {
+            if (mLayerSet) {
+                mLayerSet = false;
+                mView.setLayerType(View.LAYER_TYPE_NONE, null);
+            }
+        }
+
+        @Override
+        public void onAnimationCancel(Animator animation) {
+            mCanceled = true;
+        }
+
+        @Override
+        public void onAnimationEnd(Animator animation) {
+            // Also called when the animation is canceled
+            releaseLayer();
+            if (!mShow && !mCanceled) {
+                apply();
+            }
+            if (mTransition != null) {
+                SceneTransition transition = mTransition;
+                mTransition = null;
+                transition.onAnimationDone(mTransitionGeneration);
+            }
+        }
+
+        /**
+         * Apply the visibility of the view, a shown view is applied before its animation.
+         */
+        void apply() {
+            mView.setVisibility(mVisibility);
+            if (mToggleEnabled) {
+                mView.setEnabled(mShow);
+            }
+        }
     }
 }
@@ -0,0 +1,37 @@
+package com.geronimostudios.coffeescene.animations;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.util.SparseArray;
+import android.view.View;
+
+import java.util.List;
+
+/**
+ * <p>An {@link AnimationAdapter} that only updates the views of the scene that is
+ * hidden and of the scene that is displayed.</p>
+ *
+ * <p>The other scenes are expected to be hidden already: the first scene is always
+ * displayed with {@link #doChangeScene(SparseArray, ScenesParams, int, boolean)},
+ * which updates every scene.</p>
+ */
+public interface DeltaAnimationAdapter<T extends ScenesParams> extends AnimationAdapter<T> {
+
+    /**
+     * <p>This is called each time the current scene changes, once a scene has been
+     * displayed. This is where the animations are done.</p>
+     *
+     * @param scenesIdsToViews An {@link SparseArray} that links each scene id to
+     *                         its associated views.
+     * @param scenesParams The {@link ScenesParams} returned
+     *                     by {@link #generateScenesParams(SparseArray)} for these mScenes.
+     * @param previousSceneId The scene id currently displayed.
+     * @param sceneId The scene id to be displayed.
+     * @param animate true if you can animate the transition.
+     */
+    void doChangeScene(final @NonNull SparseArray<List<View>> scenesIdsToViews,
+                       @Nullable T scenesParams,
+                       int previousSceneId,
+                       int sceneId,
+                       boolean animate);
+}
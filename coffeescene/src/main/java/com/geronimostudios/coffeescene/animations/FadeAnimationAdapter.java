@@ -0,0 +1,177 @@
+package com.geronimostudios.coffeescene.animations;
+
+import android.animation.TimeInterpolator;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.view.View;
+import android.view.animation.AccelerateDecelerateInterpolator;
+
+/**
+ * <p>Fade the scenes in or out. This is the adapter of {@link SceneAnimations#FADE}
+ * and {@link SceneAnimations#ALPHA_ENABLE}.</p>
+ *
+ * <p>A scene can be rendered in a hardware layer while it fades, see
+ * {@link Builder#hardwareLayer(boolean)}: its views are drawn once instead of every frame
+ * of the animation. The layer is built before the fade and released when the fade ends
+ * or is canceled. It is disabled by default: building the layer costs a draw of the
+ * whole scene, compare the frameFade benchmarks of the coffeescene-benchmark module
+ * on the target devices before enabling it. Do not enable it for the scenes that are
+ * invalidated during the fade (ex: a progress bar), the layer would be redrawn every
+ * frame.</p>
+ *
+ * <p>Example:
+ * SceneManager.create(this, new FadeAnimationAdapter.Builder()
+ *      .duration(150)
+ *      .interpolator(new LinearInterpolator())
+ *      .build());</p>
+ *
+ * <p>The interpolator is shared by all the animations of the adapter and the listener
+ * of a view is created once, a fade does not allocate them.</p>
+ */
+public final class FadeAnimationAdapter extends SimpleAnimationAdapter<ScenesParams> {
+    /**
+     * The default duration of the framework animations.
+     */
+    public static final int DEFAULT_DURATION = 300;
+
+    /**
+     * The default interpolator of the framework animations, it is stateless.
+     */
+    private static final TimeInterpolator DEFAULT_INTERPOLATOR =
+            new AccelerateDecelerateInterpolator();
+
+    private final int mHiddenVisibility;
+    private final boolean mToggleEnabled;
+    private final boolean mHardwareLayer;
+    private final int mDuration;
+    private final @NonNull TimeInterpolator mInterpolator;
+
+    private FadeAnimationAdapter(@NonNull Builder builder) {
+        mHiddenVisibility = builder.mHiddenVisibility;
+        mToggleEnabled = builder.mToggleEnabled;
+        mHardwareLayer = builder.mHardwareLayer;
+        mDuration = builder.mDuration;
+        mInterpolator = builder.mInterpolator == null
+                ? DEFAULT_INTERPOLATOR : builder.mInterpolator;
+    }
+
+    @Override
+    void showView(View view, @Nullable ScenesParams params, boolean animate) {
+        if (animate) {
+            AnimationHelper.showView(view, this);
+        } else {
+            AnimationHelper.cancelAnimations(view);
+            view.setAlpha(1f);
+            view.setVisibility(View.VISIBLE);
+            if (mToggleEnabled) {
+                view.setEnabled(true);
+            }
+        }
+    }
+
+    @Override
+    void hideView(View view, @Nullable ScenesParams params, boolean animate) {
+        if (animate) {
+            AnimationHelper.hideView(view, this);
+        } else {
+            AnimationHelper.cancelAnimations(view);
+            view.setAlpha(0f);
+            view.setVisibility(mHiddenVisibility);
+            if (mToggleEnabled) {
+                view.setEnabled(false);
+            }
+        }
+    }
+
+    int getHiddenVisibility() {
+        return mHiddenVisibility;
+    }
+
+    boolean isToggleEnabled() {
+        return mToggleEnabled;
+    }
+
+    boolean isHardwareLayer() {
+        return mHardwareLayer;
+    }
+
+    int getDuration() {
+        return mDuration;
+    }
+
+    @NonNull
+    TimeInterpolator getInterpolator() {
+        return mInterpolator;
+    }
+
+    /**
+     * Configure a {@link FadeAnimationAdapter}. The default values are the ones
+     * of {@link SceneAnimations#FADE}.
+     */
+    public static final class Builder {
+        private int mHiddenVisibility = View.GONE;
+        private boolean mToggleEnabled;
+        private boolean mHardwareLayer;
+        private int mDuration = DEFAULT_DURATION;
+        private @Nullable TimeInterpolator mInterpolator;
+
+        /**
+         * @param hiddenVisibility The visibility of a hidden scene, {@link View#GONE}
+         *                         or {@link View#INVISIBLE}.
+         * @return this {@link Builder} for more configurations.
+         */
+        public Builder hiddenVisibility(int hiddenVisibility) {
+            if (hiddenVisibility != View.GONE && hiddenVisibility != View.INVISIBLE) {
+                throw new RuntimeException("Invalid visibility, use View.GONE or View.INVISIBLE");
+            }
+            mHiddenVisibility = hiddenVisibility;
+            return this;
+        }
+
+        /**
+         * @param toggleEnabled true to call {@link View#setEnabled(boolean)} on the scenes.
+         * @return this {@link Builder} for more configurations.
+         */
+        public Builder toggleEnabled(boolean toggleEnabled) {
+            mToggleEnabled = toggleEnabled;
+            return this;
+        }
+
+        /**
+         * @param hardwareLayer true to render the scenes in a hardware layer while they fade.
+         *                      Default: false.
+         * @return this {@link Builder} for more configurations.
+         */
+        public Builder hardwareLayer(boolean hardwareLayer) {
+            mHardwareLayer = hardwareLayer;
+            return this;
+        }
+
+        /**
+         * @param duration The duration of a fade in milliseconds.
+         *                 Default: {@value FadeAnimationAdapter#DEFAULT_DURATION}.
+         * @return this {@link Builder} for more configurations.
+         */
+        public Builder duration(int duration) {
+            if (duration < 0) {
+                throw new RuntimeException("Invalid duration: " + duration);
+            }
+            mDuration = duration;
+            return this;
+        }
+
+        /**
+         * @param interpolator The interpolator of the fades, shared by all the animations.
+         *                     null for an {@link AccelerateDecelerateInterpolator}.
+         * @return this {@link Builder} for more configurations.
+         */
+        public Builder interpolator(@Nullable TimeInterpolator interpolator) {
+            mInterpolator = interpolator;
+            return this;
+        }
+
+        public FadeAnimationAdapter build() {
+            return new FadeAnimationAdapter(this);
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package com.geronimostudios.coffeescene.animations;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.support.annotation.RestrictTo;
+
+/**
+ * <p>Tracks the animations started by an {@link AnimationAdapter} during a scene switch,
+ * to know when the transition is done. Used by the SceneManager, one per scenes.</p>
+ *
+ * <p>The animations of {@link SceneAnimations} and {@link FadeAnimationAdapter} are tracked.
+ * A transition whose adapter starts no tracked animation ends with the switch.</p>
+ *
+ * <p>Each switch is a new generation: the end of an animation started by a previous
+ * switch, ex: canceled by the new one, is ignored. Must be used from the main thread.</p>
+ *
+ * <p>Internal to the library: the class is only public for the SceneManager,
+ * that is in another package.</p>
+ *
+ * @hide
+ */
+@RestrictTo(RestrictTo.Scope.LIBRARY_GROUP)
+public final class SceneTransition {
+    /**
+     * The transition whose animations are being started.
+     */
+    private static @Nullable SceneTransition sStarting;
+
+    private final @NonNull Runnable mOnEnded;
+    /**
+     * The transition that was starting when {@link #begin()} was called, ex: a switch
+     * requested by the adapter of another switch. Restored by {@link #end()}.
+     */
+    private @Nullable SceneTransition mPreviousStarting;
+    private boolean mStarting;
+    private int mGeneration;
+    private int mRunningCount;
+
+    /**
+     * @param onEnded Called when the animations of the last switch are done, once
+     *                {@link #end()} has been called.
+     */
+    public SceneTransition(@NonNull Runnable onEnded) {
+        mOnEnded = onEnded;
+    }
+
+    /**
+     * Start a new generation, the animations started until {@link #end()}
+     * belong to it.
+     */
+    public void begin() {
+        mGeneration++;
+        mRunningCount = 0;
+        mStarting = true;
+        if (sStarting != this) {
+            mPreviousStarting = sStarting;
+            sStarting = this;
+        }
+    }
+
+    /**
+     * End the starting phase, the transition that was starting before {@link #begin()}
+     * is starting again.
+     *
+     * @return true if no animation of this generation is running.
+     */
+    public boolean end() {
+        mStarting = false;
+        if (sStarting == this) {
+            sStarting = mPreviousStarting;
+        }
+        mPreviousStarting = null;
+        return mRunningCount == 0;
+    }
+
+    /**
+     * @return true if an animation of the last generation is running.
+     */
+    public boolean isRunning() {
+        return mRunningCount > 0;
+    }
+
+    /**
+     * @return The transition whose animations are being started, null if none.
+     */
+    @Nullable
+    static SceneTransition starting() {
+        return sStarting;
+    }
+
+    /**
+     * An animation of this generation has been started.
+     *
+     * @return The generation to pass to {@link #onAnimationDone(int)}.
+     */
+    int track() {
+        mRunningCount++;
+        return mGeneration;
+    }
+
+    /**
+     * An animation has ended or has been canceled.
+     */
+    void onAnimationDone(int generation) {
+        if (generation != mGeneration || mRunningCount == 0) {
+            return; // started by a previous switch
+        }
+        if (--mRunningCount == 0 && !mStarting) {
+            mOnEnded.run();
+        }
+    }
+}
@@ -14,7 +14,7 @@ import java.util.List;
  * transition animations.
  */
 public abstract class SimpleAnimationAdapter<T extends ScenesParams>
-        implements AnimationAdapter<T> {
+        implements DeltaAnimationAdapter<T> {
 
     /**
      * Called once when the scenes are created.
@@ -53,18 +53,39 @@ public abstract class SimpleAnimationAdapter<T extends ScenesParams>
         for (int i = 0; i < scenesIdsToViews.size(); ++i) {
             // do change scene
             int viewSceneId = scenesIdsToViews.keyAt(i);
-            List<View> views = scenesIdsToViews.get(viewSceneId);
+            List<View> views = scenesIdsToViews.valueAt(i);
             boolean show = viewSceneId == sceneId;
             showOrHideView(show, views, currentSceneViews, scenesParams, animate);
         }
     }
 
+    @Override
+    public void doChangeScene(final @NonNull SparseArray<List<View>> scenesIdsToViews,
+                              @Nullable T scenesParams,
+                              int previousSceneId,
+                              int sceneId,
+                              boolean animate) {
+        List<View> currentSceneViews = scenesIdsToViews.get(sceneId);
+        if (previousSceneId != sceneId) {
+            List<View> previousSceneViews = scenesIdsToViews.get(previousSceneId);
+            if (previousSceneViews != null) {
+                showOrHideView(false, previousSceneViews, currentSceneViews,
+                        scenesParams, animate);
+            }
+        }
+        if (currentSceneViews != null) {
+            showOrHideView(true, currentSceneViews, null, scenesParams, animate);
+        }
+    }
+
     private void showOrHideView(boolean show,
                                 @NonNull List<View> views,
                                 @Nullable List<View> forceShowIfHidden,
                                 T scenesParams,
                                 boolean animate) {
-        for (View view : views) {
+        // Indexed loop: no iterator allocated at each switch
+        for (int i = 0; i < views.size(); ++i) {
+            View view = views.get(i);
             if (!show && forceShowIfHidden != null && forceShowIfHidden.contains(view)) {
                 continue; // Skip an forceShowIfHidden view
             }
@@ -1,46 +1,35 @@
 package com.geronimostudios.coffeescene.animations;
 
 import android.support.annotation.NonNull;
-import android.util.Pair;
 import android.util.SparseArray;
 import android.view.View;
 
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.Comparator;
+import java.util.Arrays;
 import java.util.List;
 
 class TranslateScenesParams extends ScenesParams {
-    private @NonNull List<Pair<Integer, List<View>>> mScenesIdsToViews;
+    /**
+     * The scene ids sorted in ascending order, the position of a scene is its index.
+     */
+    private final @NonNull int[] mSortedSceneIds;
     private int mLastSceneId = Integer.MIN_VALUE;
 
     TranslateScenesParams(final SparseArray<List<View>> scenes) {
         super(scenes);
 
-        mScenesIdsToViews = new ArrayList<>();
+        // The keys of a SparseArray are already sorted in ascending order
+        mSortedSceneIds = new int[scenes.size()];
         for (int i = 0; i < scenes.size(); i++) {
-            int viewSceneId = scenes.keyAt(i);
-            List<View> views = scenes.get(viewSceneId);
-
-            mScenesIdsToViews.add(Pair.create(viewSceneId, views));
+            mSortedSceneIds[i] = scenes.keyAt(i);
         }
-
-        Collections.sort(mScenesIdsToViews, new Comparator<Pair<Integer, List<View>>>() {
-            @Override
-            public int compare(Pair<Integer, List<View>> o1, Pair<Integer, List<View>> o2) {
-                return o1.first - o2.first;
-            }
-        });
     }
 
     protected int positionOf(int sceneId) {
-        for (int i = 0; i < mScenesIdsToViews.size(); ++i) {
-            Pair<Integer, List<View>> scenesIdsToView = mScenesIdsToViews.get(i);
-            if (scenesIdsToView.first == sceneId) {
-                return i;
-            }
+        int position = Arrays.binarySearch(mSortedSceneIds, sceneId);
+        if (position < 0) {
+            throw new RuntimeException("position not found");
         }
-        throw new RuntimeException("position not found");
+        return position;
     }
 
     protected int getLastSceneId() {
@@ -1,20 +1,19 @@
 package com.geronimostudios.coffeescene.animations;
 
-import android.animation.Animator;
-import android.animation.AnimatorListenerAdapter;
 import android.animation.TimeInterpolator;
 import android.support.annotation.NonNull;
 import android.support.annotation.Nullable;
 import android.util.SparseArray;
 import android.view.View;
 import android.view.ViewGroup;
+import android.view.ViewPropertyAnimator;
 import android.view.animation.DecelerateInterpolator;
 
 import java.util.List;
 
-public class TranslateXAnimationAdapter implements AnimationAdapter<TranslateScenesParams> {
+public class TranslateXAnimationAdapter
+        implements DeltaAnimationAdapter<TranslateScenesParams> {
 
-    private Animator.AnimatorListener mNoAnimation = new AnimatorListenerAdapter() {};
     private TimeInterpolator mInterpolator;
     private int mAnimationDuration;
 
@@ -45,123 +44,124 @@ public class TranslateXAnimationAdapter implements AnimationAdapter<TranslateSce
             throw new NullPointerException("Scenes params are null");
         }
 
+        List<View> currentSceneViews = scenesIdsToViews.get(sceneId);
+        for (int i = 0; i < scenesIdsToViews.size(); ++i) {
+            int viewSceneId = scenesIdsToViews.keyAt(i);
+            // If the scene is not displayed nor to be animated
+            if (viewSceneId != sceneId && viewSceneId != scenesParams.getLastSceneId()) {
+                allGone(scenesIdsToViews.valueAt(i), currentSceneViews);
+            }
+        }
+        changeScene(scenesIdsToViews, scenesParams, sceneId, animate);
+    }
+
+    @Override
+    public void doChangeScene(@NonNull SparseArray<List<View>> scenesIdsToViews,
+                              @Nullable TranslateScenesParams scenesParams,
+                              int previousSceneId,
+                              int sceneId,
+                              boolean animate) {
+        if (scenesParams == null) {
+            throw new NullPointerException("Scenes params are null");
+        }
+        // The previous scene is tracked by the params
+        changeScene(scenesIdsToViews, scenesParams, sceneId, animate);
+    }
+
+    /**
+     * Hide the last scene and display the new one, the other scenes are not updated.
+     */
+    private void changeScene(@NonNull SparseArray<List<View>> scenesIdsToViews,
+                             @NonNull TranslateScenesParams scenesParams,
+                             int sceneId,
+                             boolean animate) {
+        int lastSceneId = scenesParams.getLastSceneId();
         int lastScenePosition = 0;
         if (!scenesParams.hasValidLastSceneId()) {
             animate = false;
         } else {
-            lastScenePosition = scenesParams.positionOf(scenesParams.getLastSceneId());
+            lastScenePosition = scenesParams.positionOf(lastSceneId);
         }
         int scenePosition = scenesParams.positionOf(sceneId);
         List<View> currentSceneViews = scenesIdsToViews.get(sceneId);
+        List<View> lastSceneViews = lastSceneId == sceneId
+                ? null : scenesIdsToViews.get(lastSceneId);
 
-        for (int i = 0; i < scenesIdsToViews.size(); ++i) {
-            // do change scene
-            int viewSceneId = scenesIdsToViews.keyAt(i);
-            List<View> views = scenesIdsToViews.get(viewSceneId);
+        if (lastSceneViews != null) {
+            changeScene(false, lastSceneViews, currentSceneViews,
+                    animate, scenePosition < lastScenePosition);
+        }
+        if (currentSceneViews != null) {
+            changeScene(true, currentSceneViews, null,
+                    animate, scenePosition < lastScenePosition);
+        }
+        scenesParams.setLastSceneId(sceneId);
+    }
 
-            // If the scene is not displayed nor to be animated
-            if (viewSceneId != sceneId && viewSceneId != scenesParams.getLastSceneId()) {
-                allGone(views, currentSceneViews);
-                continue;
+    private void changeScene(boolean isNewScene,
+                             @NonNull List<View> views,
+                             @Nullable List<View> skippedViews,
+                             boolean animate,
+                             boolean leftToRight) {
+        for (int i = 0; i < views.size(); ++i) {
+            View view = views.get(i);
+            if (skippedViews != null && skippedViews.contains(view)) {
+                continue; // Also displayed by the new scene
             }
-
-            boolean isNewScene = viewSceneId == sceneId;
             if (!animate) {
-                showOrHideWithoutAnimations(isNewScene, views);
-                continue;
-            }
-
-            if (scenePosition < lastScenePosition) {
-                // left to right
-                doLeftToRight(isNewScene, views);
+                showOrHideWithoutAnimations(isNewScene, view);
             } else {
-                // right to left
-                doRightToLeft(isNewScene, views);
+                doTranslate(isNewScene, view, leftToRight);
             }
         }
-        scenesParams.setLastSceneId(sceneId);
     }
 
-    private void showOrHideWithoutAnimations(boolean isNewScene, @NonNull List<View> views) {
-        for (View view : views) {
-            if (isNewScene) {
-                view.setTranslationX(0);
-                view.setVisibility(View.VISIBLE);
-            } else {
-                view.setVisibility(View.GONE);
-            }
+    private void showOrHideWithoutAnimations(boolean isNewScene, @NonNull View view) {
+        AnimationHelper.cancelAnimations(view);
+        if (isNewScene) {
+            view.setTranslationX(0);
+            view.setVisibility(View.VISIBLE);
+        } else {
+            view.setVisibility(View.GONE);
         }
     }
 
-    private void doLeftToRight(boolean isNewScene, @NonNull List<View> views) {
-        for (final View view : views) {
-            view.clearAnimation();
-            int parentWidth = ((ViewGroup) view.getParent()).getWidth();
-            if (isNewScene) {
-                if (view.getVisibility() == View.GONE) {
-                    view.setVisibility(View.VISIBLE);
-                    view.setTranslationX(-parentWidth);
-                }
-                view.animate()
-                        .translationX(0)
-                        .setDuration(mAnimationDuration)
-                        .setInterpolator(mInterpolator)
-                        .setListener(mNoAnimation);
-            } else {
-                if (view.getVisibility() == View.GONE) {
-                    view.setVisibility(View.VISIBLE);
-                    view.setTranslationX(0);
-                }
-                view.animate()
-                        .translationX(parentWidth)
-                        .setDuration(mAnimationDuration)
-                        .setInterpolator(mInterpolator)
-                        .setListener(new AnimatorListenerAdapter() {
-                            @Override
-                            public void onAnimationEnd(Animator animation) {
-                                view.setVisibility(View.GONE);
-                            }
-                        });
+    /**
+     * Translate a view in or out. The animation that is running on the view is canceled,
+     * the new one starts from the current translation.
+     */
+    private void doTranslate(boolean isNewScene, @NonNull View view, boolean leftToRight) {
+        AnimationHelper.ViewAnimationListener listener = AnimationHelper.cancelAnimations(view);
+        int parentWidth = ((ViewGroup) view.getParent()).getWidth();
+        int direction = leftToRight ? 1 : -1;
+        if (isNewScene) {
+            if (view.getVisibility() == View.GONE) {
+                view.setVisibility(View.VISIBLE);
+                view.setTranslationX(-direction * parentWidth);
             }
+            listener.prepare(true, View.VISIBLE, false, false);
+            animate(view, 0).setListener(listener);
+        } else {
+            if (view.getVisibility() == View.GONE) {
+                view.setVisibility(View.VISIBLE);
+                view.setTranslationX(0);
+            }
+            listener.prepare(false, View.GONE, false, false);
+            animate(view, direction * parentWidth).setListener(listener);
         }
     }
 
-    private void doRightToLeft(boolean isNewScene, @NonNull List<View> views) {
-        for (final View view : views) {
-            view.clearAnimation();
-            int parentWidth = ((ViewGroup) view.getParent()).getWidth();
-            if (isNewScene) {
-                if (view.getVisibility() == View.GONE) {
-                    view.setVisibility(View.VISIBLE);
-                    view.setTranslationX(parentWidth);
-                }
-                view.animate()
-                        .translationX(0)
-                        .setDuration(mAnimationDuration)
-                        .setInterpolator(mInterpolator)
-                        .setListener(mNoAnimation);
-            } else {
-                if (view.getVisibility() == View.GONE) {
-                    view.setVisibility(View.VISIBLE);
-                    view.setTranslationX(0);
-                }
-                view.animate()
-                        .translationX(-parentWidth)
-                        .setDuration(mAnimationDuration)
-                        .setInterpolator(mInterpolator)
-                        .setListener(new AnimatorListenerAdapter() {
-                            @Override
-                            public void onAnimationEnd(Animator animation) {
-                                view.setVisibility(View.GONE);
-                            }
-                        });
-            }
-        }
+    private ViewPropertyAnimator animate(@NonNull View view, float translationX) {
+        return view.animate()
+                .translationX(translationX)
+                .setDuration(mAnimationDuration)
+                .setInterpolator(mInterpolator);
     }
 
     private void allGone(@NonNull List<View> views, @Nullable List<View> forceShowIfHidden) {
         for (View view : views) {
             if (forceShowIfHidden == null || !forceShowIfHidden.contains(view)) {
+                AnimationHelper.cancelAnimations(view);
                 view.setVisibility(View.GONE);
             }
         }
@@ -29,4 +29,26 @@ public @interface CoffeeScene {
      * The {@link Scene} associated to this id will be the displayed first.
      */
     int first() default Scene.MAIN;
+
+    /**
+     * <p>If true, only the {@link Scene} displayed first is inflated by
+     * {@link com.geronimostudios.coffeescene.SceneManager#create(android.app.Activity)}.
+     * The other scenes are inflated the first time they are displayed.</p>
+     *
+     * <p>Useful for the scenes that are rarely displayed (error, placeholder...).</p>
+     */
+    boolean lazy() default false;
+
+    /**
+     * <p>If true, the scenes are {@link #lazy()} and the scenes that are not displayed
+     * are inflated in background once the first frame has been drawn.</p>
+     *
+     * <p>A scene requested before its views are ready is displayed as soon as
+     * they have been inflated.</p>
+     *
+     * <p>The scenes of every holder are inflated one at a time, a view of a released
+     * scene is reused when possible (see
+     * {@link com.geronimostudios.coffeescene.SceneManager#setViewPoolSize(int)}).</p>
+     */
+    boolean async() default false;
 }
\ No newline at end of file
@@ -0,0 +1,138 @@
+package com.geronimostudios.coffeescene;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class LatencyHistogramTest {
+    private LatencyHistogram mHistogram;
+
+    @Before
+    public void setUp() {
+        mHistogram = new LatencyHistogram();
+    }
+
+    @Test
+    public void isEmptyWithoutSample() {
+        assertEquals(0, mHistogram.getCount());
+        assertEquals(0, mHistogram.getMin());
+        assertEquals(0, mHistogram.getMax());
+        assertEquals(0, mHistogram.getMean());
+        assertEquals(0, mHistogram.getValueAtPercentile(99));
+    }
+
+    @Test
+    public void recordsTheCountMinMaxAndMean() {
+        mHistogram.record(100);
+        mHistogram.record(300);
+        mHistogram.record(200);
+
+        assertEquals(3, mHistogram.getCount());
+        assertEquals(100, mHistogram.getMin());
+        assertEquals(300, mHistogram.getMax());
+        assertEquals(200, mHistogram.getMean());
+    }
+
+    @Test
+    public void keepsTheSmallValuesExact() {
+        for (int i = 0; i < 16; ++i) {
+            mHistogram.record(i);
+        }
+
+        assertEquals(0, mHistogram.getValueAtPercentile(0));
+        assertEquals(3, mHistogram.getValueAtPercentile(25));
+        assertEquals(7, mHistogram.getValueAtPercentile(50));
+        assertEquals(11, mHistogram.getValueAtPercentile(75));
+        assertEquals(15, mHistogram.getValueAtPercentile(100));
+    }
+
+    @Test
+    public void knowsThePercentilesWithin12Percent() {
+        for (long value = 1; value <= 1000000; value += 1000) {
+            mHistogram.record(value);
+        }
+
+        assertWithin(500001, mHistogram.getValueAtPercentile(50));
+        assertWithin(900001, mHistogram.getValueAtPercentile(90));
+        assertWithin(990001, mHistogram.getValueAtPercentile(99));
+    }
+
+    @Test
+    public void clampsThePercentilesToTheRecordedValues() {
+        mHistogram.record(1000);
+
+        assertEquals(1000, mHistogram.getValueAtPercentile(1));
+        assertEquals(1000, mHistogram.getValueAtPercentile(100));
+    }
+
+    @Test
+    public void clampsTheNegativeAndTooLongDurations() {
+        mHistogram.record(-5);
+        mHistogram.record(Long.MAX_VALUE);
+
+        assertEquals(0, mHistogram.getMin());
+        assertEquals(LatencyHistogram.MAX_VALUE, mHistogram.getMax());
+        assertEquals(LatencyHistogram.MAX_VALUE, mHistogram.getValueAtPercentile(100));
+    }
+
+    @Test(expected = RuntimeException.class)
+    public void rejectsANegativePercentile() {
+        mHistogram.getValueAtPercentile(-1);
+    }
+
+    @Test(expected = RuntimeException.class)
+    public void rejectsAPercentileAbove100() {
+        mHistogram.getValueAtPercentile(100.5);
+    }
+
+    @Test
+    public void snapshotIsACopy() {
+        mHistogram.record(10);
+        mHistogram.record(20);
+
+        LatencyHistogram snapshot = mHistogram.snapshot();
+        mHistogram.record(1000);
+
+        assertEquals(2, snapshot.getCount());
+        assertEquals(10, snapshot.getMin());
+        assertEquals(20, snapshot.getMax());
+        assertEquals(15, snapshot.getMean());
+        assertEquals(20, snapshot.getValueAtPercentile(100));
+    }
+
+    @Test
+    public void snapshotOverwritesTheTarget() {
+        LatencyHistogram into = new LatencyHistogram();
+        into.record(5000);
+        mHistogram.record(10);
+
+        mHistogram.snapshot(into);
+
+        assertEquals(1, into.getCount());
+        assertEquals(10, into.getMax());
+        assertEquals(10, into.getValueAtPercentile(100));
+    }
+
+    @Test
+    public void resetRemovesTheSamples() {
+        mHistogram.record(10);
+        mHistogram.record(5000);
+        mHistogram.reset();
+
+        assertEquals(0, mHistogram.getCount());
+        assertEquals(0, mHistogram.getMin());
+        assertEquals(0, mHistogram.getMax());
+        assertEquals(0, mHistogram.getValueAtPercentile(50));
+
+        mHistogram.record(42);
+        assertEquals(42, mHistogram.getMin());
+        assertEquals(42, mHistogram.getValueAtPercentile(50));
+    }
+
+    private static void assertWithin(long expected, long actual) {
+        assertTrue("expected about " + expected + " but was " + actual,
+                actual >= expected && actual <= expected + expected / 8);
+    }
+}
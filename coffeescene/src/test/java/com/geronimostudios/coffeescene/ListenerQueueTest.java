@@ -0,0 +1,177 @@
+package com.geronimostudios.coffeescene;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class ListenerQueueTest {
+    private ManualExecutor mExecutor;
+    private ListenerQueue mQueue;
+    private RecordingListener mListener;
+    private Listener[] mListeners;
+
+    @Before
+    public void setUp() {
+        mExecutor = new ManualExecutor();
+        mQueue = new ListenerQueue(mExecutor);
+        mListener = new RecordingListener();
+        mListeners = new Listener[] {mListener};
+    }
+
+    @Test
+    public void deliversTheEventsInOrder() {
+        postSwitch(1, 2);
+        postSwitch(2, 3);
+        mExecutor.runAll();
+
+        assertEquals(
+                "hidden 1, displayed 2, changed 2, hidden 2, displayed 3, changed 3",
+                mListener.events());
+    }
+
+    @Test
+    public void schedulesOneTaskUntilTheQueueIsDrained() {
+        postSwitch(1, 2);
+        postSwitch(2, 3);
+        assertEquals(1, mExecutor.pendingCount());
+
+        mExecutor.runAll();
+        assertTrue(mQueue.isIdle());
+
+        postSwitch(3, 1);
+        assertEquals(1, mExecutor.pendingCount());
+    }
+
+    @Test
+    public void keepsTheOrderWhenTheBufferGrows() {
+        for (int i = 0; i < 20; ++i) {
+            mQueue.post(ListenerQueue.SCENE_CHANGED, i, mListeners);
+        }
+        mExecutor.runAll();
+
+        StringBuilder expected = new StringBuilder();
+        for (int i = 0; i < 20; ++i) {
+            expected.append(i == 0 ? "" : ", ").append("changed ").append(i);
+        }
+        assertEquals(expected.toString(), mListener.events());
+    }
+
+    @Test
+    public void deliversTheNextEventsWhenAListenerThrows() {
+        mListener.mThrowOnSceneId = 2;
+        postSwitch(1, 2);
+        postSwitch(2, 3);
+        try {
+            mExecutor.runNext();
+            fail("The exception of the listener is left to the executor");
+        } catch (IllegalStateException expected) {
+            // thrown by the listener
+        }
+        mExecutor.runAll();
+
+        assertEquals(
+                "hidden 1, displayed 2, changed 2, hidden 2, displayed 3, changed 3",
+                mListener.events());
+        assertTrue(mQueue.isIdle());
+    }
+
+    @Test
+    public void keepsTheOrderWhenTheExecutorIsReplaced() {
+        postSwitch(1, 2);
+        ManualExecutor executor = new ManualExecutor();
+        mQueue.setExecutor(executor);
+        postSwitch(2, 3);
+        assertEquals(0, executor.pendingCount());
+
+        mExecutor.runAll();
+        assertEquals(
+                "hidden 1, displayed 2, changed 2, hidden 2, displayed 3, changed 3",
+                mListener.events());
+
+        postSwitch(3, 1);
+        assertEquals(0, mExecutor.pendingCount());
+        assertEquals(1, executor.pendingCount());
+    }
+
+    @Test
+    public void capturesTheListenersWhenTheEventIsQueued() {
+        RecordingListener added = new RecordingListener();
+        postSwitch(1, 2);
+        mListeners = new Listener[] {mListener, added};
+        postSwitch(2, 3);
+        mExecutor.runAll();
+
+        assertEquals("hidden 2, displayed 3, changed 3", added.events());
+        assertFalse(mListener.events().isEmpty());
+    }
+
+    private void postSwitch(int previousSceneId, int sceneId) {
+        mQueue.post(ListenerQueue.SCENE_HIDDEN, previousSceneId, mListeners);
+        mQueue.post(ListenerQueue.SCENE_DISPLAYED, sceneId, mListeners);
+        mQueue.post(ListenerQueue.SCENE_CHANGED, sceneId, mListeners);
+    }
+
+    private static final class ManualExecutor implements Executor {
+        private final List<Runnable> mTasks = new ArrayList<>();
+
+        @Override
+        public void execute(Runnable command) {
+            mTasks.add(command);
+        }
+
+        int pendingCount() {
+            return mTasks.size();
+        }
+
+        void runNext() {
+            mTasks.remove(0).run();
+        }
+
+        void runAll() {
+            while (!mTasks.isEmpty()) {
+                runNext();
+            }
+        }
+    }
+
+    private static final class RecordingListener implements Listener {
+        private final StringBuilder mEvents = new StringBuilder();
+        private int mThrowOnSceneId = Integer.MIN_VALUE;
+
+        @Override
+        public void onSceneChanged(int sceneId) {
+            record("changed", sceneId);
+            if (sceneId == mThrowOnSceneId) {
+                mThrowOnSceneId = Integer.MIN_VALUE;
+                throw new IllegalStateException("listener failure");
+            }
+        }
+
+        @Override
+        public void onSceneHidden(int sceneId) {
+            record("hidden", sceneId);
+        }
+
+        @Override
+        public void onSceneDisplayed(int sceneId) {
+            record("displayed", sceneId);
+        }
+
+        private void record(String event, int sceneId) {
+            mEvents.append(mEvents.length() == 0 ? "" : ", ").append(event).append(' ')
+                    .append(sceneId);
+        }
+
+        String events() {
+            return mEvents.toString();
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.geronimostudios.coffeescene;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Records the events of the scenes in order, from any thread.
+ */
+final class RecordingListener implements TransitionListener {
+    private final List<String> mEvents = new ArrayList<>();
+
+    static String changed(int sceneId) {
+        return "changed " + sceneId;
+    }
+
+    static String hidden(int sceneId) {
+        return "hidden " + sceneId;
+    }
+
+    static String displayed(int sceneId) {
+        return "displayed " + sceneId;
+    }
+
+    static String transitionStarted(int sceneId) {
+        return "transitionStarted " + sceneId;
+    }
+
+    static String transitionEnded(int sceneId) {
+        return "transitionEnded " + sceneId;
+    }
+
+    static String transitionCanceled(int sceneId) {
+        return "transitionCanceled " + sceneId;
+    }
+
+    /**
+     * The events of a switch without transition event, in the order of the SceneManager.
+     */
+    static List<String> switched(int previousSceneId, int sceneId) {
+        return Arrays.asList(hidden(previousSceneId), displayed(sceneId), changed(sceneId));
+    }
+
+    synchronized List<String> events() {
+        return new ArrayList<>(mEvents);
+    }
+
+    synchronized void clear() {
+        mEvents.clear();
+    }
+
+    synchronized void record(String event) {
+        mEvents.add(event);
+    }
+
+    @Override
+    public void onSceneChanged(int sceneId) {
+        record(changed(sceneId));
+    }
+
+    @Override
+    public void onSceneHidden(int sceneId) {
+        record(hidden(sceneId));
+    }
+
+    @Override
+    public void onSceneDisplayed(int sceneId) {
+        record(displayed(sceneId));
+    }
+
+    @Override
+    public void onTransitionStarted(int sceneId) {
+        record(transitionStarted(sceneId));
+    }
+
+    @Override
+    public void onTransitionEnded(int sceneId) {
+        record(transitionEnded(sceneId));
+    }
+
+    @Override
+    public void onTransitionCanceled(int sceneId) {
+        record(transitionCanceled(sceneId));
+    }
+}
@@ -0,0 +1,132 @@
+package com.geronimostudios.coffeescene;
+
+import com.geronimostudios.coffeescene.annotations.Scene;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+import org.robolectric.shadows.ShadowChoreographer;
+
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+import static com.geronimostudios.coffeescene.RecordingListener.switched;
+import static org.junit.Assert.assertEquals;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 27)
+public class SceneBatchTest {
+    private static final int FRAME_MS = 16;
+
+    private final Object mHeader = new Object();
+    private final Object mList = new Object();
+    private RecordingListener mHeaderListener;
+    private RecordingListener mListListener;
+    private SceneController mHeaderController;
+    private SceneController mListController;
+
+    @Before
+    public void setUp() {
+        ShadowChoreographer.setPostFrameCallbackDelay(FRAME_MS);
+        mHeaderListener = new RecordingListener();
+        mListListener = new RecordingListener();
+        mHeaderController = SceneManager.createController(
+                new TestScenes().creator(mHeader).listener(mHeaderListener));
+        mListController = SceneManager.createController(
+                new TestScenes().creator(mList).listener(mListListener));
+        mHeaderListener.clear();
+        mListListener.clear();
+    }
+
+    @After
+    public void tearDown() {
+        mHeaderController.release();
+        mListController.release();
+        ShadowChoreographer.setPostFrameCallbackDelay(0);
+    }
+
+    @Test
+    public void appliesTheChangesAtTheNextFrame() {
+        SceneManager.batch()
+                .scene(mHeader, Scene.SPINNER)
+                .scene(mList, Scene.PLACEHOLDER, false)
+                .apply();
+        assertEquals(Scene.MAIN, SceneManager.current(mHeader));
+        assertEquals(Scene.MAIN, SceneManager.current(mList));
+
+        advanceFrame();
+        assertEquals(Scene.SPINNER, SceneManager.current(mHeader));
+        assertEquals(Scene.PLACEHOLDER, SceneManager.current(mList));
+        assertEquals(switched(Scene.MAIN, Scene.SPINNER), mHeaderListener.events());
+        assertEquals(switched(Scene.MAIN, Scene.PLACEHOLDER), mListListener.events());
+    }
+
+    @Test
+    public void keepsTheLastSceneOfAReference() {
+        SceneManager.batch()
+                .scene(mHeader, Scene.SPINNER)
+                .scene(mHeader, Scene.PLACEHOLDER)
+                .apply();
+        advanceFrame();
+
+        assertEquals(switched(Scene.MAIN, Scene.PLACEHOLDER), mHeaderListener.events());
+    }
+
+    @Test
+    public void skipsTheDisplayedScene() {
+        SceneManager.batch()
+                .scene(mHeader, Scene.MAIN)
+                .apply();
+        advanceFrame();
+
+        assertEquals(Collections.emptyList(), mHeaderListener.events());
+    }
+
+    @Test
+    public void appliesOncePerFrame() {
+        SceneBatch batch = SceneManager.batch().scene(mHeader, Scene.SPINNER);
+        batch.apply();
+        batch.apply();
+        advanceFrame();
+        advanceFrame();
+
+        assertEquals(switched(Scene.MAIN, Scene.SPINNER), mHeaderListener.events());
+    }
+
+    @Test
+    public void canBeReused() {
+        SceneBatch batch = SceneManager.batch();
+        batch.scene(mHeader, Scene.SPINNER).apply();
+        advanceFrame();
+
+        // The references of the previous changes are not kept
+        batch.scene(mList, Scene.SPINNER).apply();
+        advanceFrame();
+
+        assertEquals(Scene.SPINNER, SceneManager.current(mHeader));
+        assertEquals(Scene.SPINNER, SceneManager.current(mList));
+        assertEquals(3, mHeaderListener.events().size());
+        assertEquals(switched(Scene.MAIN, Scene.SPINNER), mListListener.events());
+    }
+
+    @Test
+    public void ignoresTheReleasedReferences() {
+        SceneManager.batch()
+                .scene(mHeader, Scene.SPINNER)
+                .scene(mList, Scene.SPINNER)
+                .apply();
+        mHeaderController.release();
+        advanceFrame();
+
+        assertEquals(Collections.emptyList(), mHeaderListener.events());
+        assertEquals(Scene.SPINNER, SceneManager.current(mList));
+    }
+
+    private static void advanceFrame() {
+        Robolectric.getForegroundThreadScheduler().advanceBy(FRAME_MS, TimeUnit.MILLISECONDS);
+    }
+}
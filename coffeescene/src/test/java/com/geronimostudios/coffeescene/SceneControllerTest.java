@@ -0,0 +1,97 @@
+package com.geronimostudios.coffeescene;
+
+import com.geronimostudios.coffeescene.annotations.Scene;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.util.Collections;
+
+import static com.geronimostudios.coffeescene.RecordingListener.switched;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 27)
+public class SceneControllerTest {
+    private final Object mHolder = new Object();
+    private TestScenes mScenes;
+    private SceneController mController;
+
+    @Before
+    public void setUp() {
+        mScenes = new TestScenes();
+        mController = SceneManager.createController(mScenes.creator(mHolder));
+    }
+
+    @After
+    public void tearDown() {
+        SceneController controller = SceneManager.controller(mHolder);
+        if (controller != null) {
+            controller.release();
+        }
+    }
+
+    @Test
+    public void isBoundToTheScenesOfTheReference() {
+        assertSame(mController, SceneManager.controller(mHolder));
+        assertSame(mController, SceneManager.controller(mHolder));
+        assertNull(SceneManager.controller(new Object()));
+    }
+
+    @Test
+    public void switchesTheScenes() {
+        mController.scene(Scene.SPINNER, false);
+
+        assertEquals(Scene.SPINNER, mController.current());
+        assertEquals(Scene.SPINNER, SceneManager.current(mHolder));
+    }
+
+    @Test
+    public void addsAndRemovesTheListeners() {
+        RecordingListener listener = new RecordingListener();
+        mController.addListener(listener);
+        mController.scene(Scene.SPINNER);
+
+        mController.removeListener(listener);
+        mController.scene(Scene.MAIN);
+
+        assertEquals(switched(Scene.MAIN, Scene.SPINNER), listener.events());
+    }
+
+    @Test
+    public void doesNothingOnceReleased() {
+        RecordingListener listener = new RecordingListener();
+        mController.addListener(listener);
+
+        mController.release();
+        mController.scene(Scene.SPINNER);
+        mController.reset();
+        mController.release();
+
+        assertEquals(Integer.MIN_VALUE, mController.current());
+        assertEquals(Integer.MIN_VALUE, SceneManager.current(mHolder));
+        assertNull(SceneManager.controller(mHolder));
+        assertEquals(Collections.emptyList(), listener.events());
+    }
+
+    @Test
+    public void aStaleControllerDoesNotReleaseTheNewScenes() {
+        SceneController controller = SceneManager.createController(mScenes.creator(mHolder));
+        assertNotSame(mController, controller);
+
+        mController.release();
+        mController.scene(Scene.SPINNER);
+
+        assertEquals(Integer.MIN_VALUE, mController.current());
+        assertSame(controller, SceneManager.controller(mHolder));
+        controller.scene(Scene.PLACEHOLDER);
+        assertEquals(Scene.PLACEHOLDER, SceneManager.current(mHolder));
+    }
+}
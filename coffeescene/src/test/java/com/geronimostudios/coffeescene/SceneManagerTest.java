@@ -0,0 +1,347 @@
+package com.geronimostudios.coffeescene;
+
+import android.view.View;
+
+import com.geronimostudios.coffeescene.animations.SceneAnimations;
+import com.geronimostudios.coffeescene.annotations.Scene;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+import org.robolectric.shadows.ShadowChoreographer;
+import org.robolectric.util.Scheduler;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static com.geronimostudios.coffeescene.RecordingListener.switched;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * <p>The switches of {@link SceneManager}. The frames are driven by the clock of Robolectric,
+ * one frame every {@value #FRAME_MS} ms.</p>
+ *
+ * <p>The main looper is paused while another thread requests a switch: Robolectric would
+ * run the posted task at once on the calling thread otherwise.</p>
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 27)
+public class SceneManagerTest {
+    private static final int FRAME_MS = 16;
+
+    private final Object mHolder = new Object();
+    private TestScenes mScenes;
+    private RecordingListener mListener;
+    private SceneController mController;
+
+    @Before
+    public void setUp() {
+        ShadowChoreographer.setPostFrameCallbackDelay(FRAME_MS);
+        mScenes = new TestScenes();
+        mListener = new RecordingListener();
+        mController = SceneManager.createController(mScenes.creator(mHolder).listener(mListener));
+        mListener.clear();
+    }
+
+    @After
+    public void tearDown() {
+        mController.release();
+        SceneManager.setCoalesceSwitches(false);
+        ShadowChoreographer.setPostFrameCallbackDelay(0);
+    }
+
+    @Test
+    public void switchesAtOnce() {
+        SceneManager.scene(mHolder, Scene.SPINNER);
+
+        assertEquals(Scene.SPINNER, SceneManager.current(mHolder));
+        assertEquals(View.GONE, mScenes.mMain.getVisibility());
+        assertEquals(View.VISIBLE, mScenes.mSpinner.getVisibility());
+        assertEquals(switched(Scene.MAIN, Scene.SPINNER), mListener.events());
+    }
+
+    @Test
+    public void skipsTheSwitchToTheDisplayedScene() {
+        mScenes.mMain.setVisibility(View.INVISIBLE);
+
+        SceneManager.scene(mHolder, Scene.MAIN);
+
+        // Not switched again: the views are left untouched
+        assertEquals(View.INVISIBLE, mScenes.mMain.getVisibility());
+        assertEquals(Collections.emptyList(), mListener.events());
+    }
+
+    @Test
+    public void coalescesTheSwitchesOfAFrame() {
+        SceneManager.setCoalesceSwitches(true);
+
+        SceneManager.scene(mHolder, Scene.SPINNER);
+        SceneManager.scene(mHolder, Scene.PLACEHOLDER);
+        assertEquals(Scene.MAIN, SceneManager.current(mHolder));
+        assertEquals(Collections.emptyList(), mListener.events());
+
+        advanceFrame();
+        assertEquals(Scene.PLACEHOLDER, SceneManager.current(mHolder));
+        assertEquals(View.GONE, mScenes.mSpinner.getVisibility());
+        assertEquals(switched(Scene.MAIN, Scene.PLACEHOLDER), mListener.events());
+    }
+
+    @Test
+    public void skipsTheCoalescedSwitchesBackToTheDisplayedScene() {
+        SceneManager.setCoalesceSwitches(true);
+
+        SceneManager.scene(mHolder, Scene.SPINNER);
+        SceneManager.scene(mHolder, Scene.MAIN);
+        advanceFrame();
+
+        assertEquals(Scene.MAIN, SceneManager.current(mHolder));
+        assertEquals(Collections.emptyList(), mListener.events());
+    }
+
+    @Test
+    public void skipsTheSwitchToTheRequestedScene() {
+        SceneManager.setCoalesceSwitches(true);
+
+        SceneManager.scene(mHolder, Scene.SPINNER);
+        SceneManager.scene(mHolder, Scene.SPINNER);
+        advanceFrame();
+        advanceFrame();
+
+        assertEquals(switched(Scene.MAIN, Scene.SPINNER), mListener.events());
+    }
+
+    @Test
+    public void switchesOncePerFrame() {
+        SceneManager.setCoalesceSwitches(true);
+
+        SceneManager.scene(mHolder, Scene.SPINNER);
+        advanceFrame();
+        SceneManager.scene(mHolder, Scene.PLACEHOLDER);
+        advanceFrame();
+
+        assertEquals(Scene.PLACEHOLDER, SceneManager.current(mHolder));
+        assertEquals(6, mListener.events().size());
+        assertEquals(switched(Scene.SPINNER, Scene.PLACEHOLDER),
+                mListener.events().subList(3, 6));
+    }
+
+    @Test
+    public void resetDisplaysTheFirstScene() {
+        SceneManager.scene(mHolder, Scene.SPINNER);
+        mListener.clear();
+
+        SceneManager.reset(mHolder);
+
+        assertEquals(Scene.MAIN, SceneManager.current(mHolder));
+        assertEquals(View.VISIBLE, mScenes.mMain.getVisibility());
+        assertEquals(View.GONE, mScenes.mSpinner.getVisibility());
+        assertEquals(switched(Scene.SPINNER, Scene.MAIN), mListener.events());
+    }
+
+    @Test
+    public void resetUpdatesTheViewsOfTheDisplayedScene() {
+        // Ex: a recycled row whose views have been changed
+        mScenes.mMain.setVisibility(View.GONE);
+        mScenes.mPlaceholder.setVisibility(View.VISIBLE);
+
+        mController.reset();
+
+        assertEquals(View.VISIBLE, mScenes.mMain.getVisibility());
+        assertEquals(View.GONE, mScenes.mPlaceholder.getVisibility());
+        assertEquals(Collections.emptyList(), mListener.events());
+    }
+
+    @Test
+    public void resetDisplaysAScene() {
+        SceneManager.reset(mHolder, Scene.PLACEHOLDER);
+
+        assertEquals(Scene.PLACEHOLDER, SceneManager.current(mHolder));
+        assertEquals(View.GONE, mScenes.mMain.getVisibility());
+        assertEquals(View.VISIBLE, mScenes.mPlaceholder.getVisibility());
+        assertEquals(switched(Scene.MAIN, Scene.PLACEHOLDER), mListener.events());
+    }
+
+    @Test
+    public void resetDropsThePendingSwitch() {
+        SceneManager.setCoalesceSwitches(true);
+        SceneManager.scene(mHolder, Scene.SPINNER);
+
+        SceneManager.reset(mHolder);
+        advanceFrame();
+
+        assertEquals(Scene.MAIN, SceneManager.current(mHolder));
+        assertEquals(Collections.emptyList(), mListener.events());
+    }
+
+    @Test
+    public void resetCancelsTheAnimations() {
+        mController.release();
+        mController = SceneManager.createController(
+                mScenes.creator(mHolder).animation(SceneAnimations.FADE));
+        SceneManager.scene(mHolder, Scene.SPINNER);
+        advanceFrame();
+
+        SceneManager.reset(mHolder);
+        for (int i = 0; i < 30; ++i) {
+            advanceFrame();
+        }
+
+        // The canceled animations do not apply their visibility
+        assertEquals(View.VISIBLE, mScenes.mMain.getVisibility());
+        assertEquals(1f, mScenes.mMain.getAlpha(), 0f);
+        assertEquals(View.GONE, mScenes.mSpinner.getVisibility());
+        assertEquals(0f, mScenes.mSpinner.getAlpha(), 0f);
+    }
+
+    @Test
+    public void postsTheSwitchOfAnotherThread() throws InterruptedException {
+        Scheduler scheduler = Robolectric.getForegroundThreadScheduler();
+        scheduler.pause();
+        runOnOtherThread(new Runnable() {
+            @Override
+            public void run() {
+                SceneManager.scene(mHolder, Scene.SPINNER);
+            }
+        });
+        assertEquals(Scene.MAIN, SceneManager.current(mHolder));
+        assertEquals(Collections.emptyList(), mListener.events());
+
+        scheduler.unPause();
+        assertEquals(Scene.SPINNER, SceneManager.current(mHolder));
+        assertEquals(switched(Scene.MAIN, Scene.SPINNER), mListener.events());
+    }
+
+    @Test
+    public void theLastSwitchOfAnotherThreadWins() throws InterruptedException {
+        Scheduler scheduler = Robolectric.getForegroundThreadScheduler();
+        scheduler.pause();
+        runOnOtherThread(new Runnable() {
+            @Override
+            public void run() {
+                SceneManager.scene(mHolder, Scene.SPINNER);
+                mController.scene(Scene.PLACEHOLDER);
+            }
+        });
+
+        scheduler.unPause();
+        assertEquals(Scene.PLACEHOLDER, SceneManager.current(mHolder));
+        assertEquals(switched(Scene.MAIN, Scene.PLACEHOLDER), mListener.events());
+    }
+
+    @Test
+    public void aSwitchOfTheMainThreadDropsThePostedSwitch() throws InterruptedException {
+        Scheduler scheduler = Robolectric.getForegroundThreadScheduler();
+        scheduler.pause();
+        runOnOtherThread(new Runnable() {
+            @Override
+            public void run() {
+                SceneManager.scene(mHolder, Scene.SPINNER);
+            }
+        });
+
+        SceneManager.scene(mHolder, Scene.PLACEHOLDER);
+        scheduler.unPause();
+
+        // The posted switch is older: it must not switch back to its scene
+        assertEquals(Scene.PLACEHOLDER, SceneManager.current(mHolder));
+        assertEquals(switched(Scene.MAIN, Scene.PLACEHOLDER), mListener.events());
+    }
+
+    @Test
+    public void aSwitchOfAnotherThreadAfterTheMainThreadIsDone() throws InterruptedException {
+        Scheduler scheduler = Robolectric.getForegroundThreadScheduler();
+        scheduler.pause();
+        SceneManager.scene(mHolder, Scene.PLACEHOLDER);
+        runOnOtherThread(new Runnable() {
+            @Override
+            public void run() {
+                SceneManager.scene(mHolder, Scene.SPINNER);
+            }
+        });
+
+        scheduler.unPause();
+        assertEquals(Scene.SPINNER, SceneManager.current(mHolder));
+    }
+
+    @Test
+    public void notifiesEachListenerOncePerSwitch() {
+        RecordingListener second = new RecordingListener();
+        RecordingListener third = new RecordingListener();
+        SceneManager.addListener(mHolder, second);
+        SceneManager.addListener(mHolder, third);
+        SceneManager.addListener(mHolder, second);
+
+        SceneManager.scene(mHolder, Scene.SPINNER);
+        SceneManager.scene(mHolder, Scene.PLACEHOLDER);
+
+        // Only the previous and the new scenes are notified
+        List<String> expected = new ArrayList<>(switched(Scene.MAIN, Scene.SPINNER));
+        expected.addAll(switched(Scene.SPINNER, Scene.PLACEHOLDER));
+        assertEquals(expected, mListener.events());
+        assertEquals(expected, second.events());
+        assertEquals(expected, third.events());
+    }
+
+    @Test
+    public void stopsNotifyingARemovedListener() {
+        RecordingListener second = new RecordingListener();
+        SceneManager.addListener(mHolder, second);
+        SceneManager.scene(mHolder, Scene.SPINNER);
+
+        SceneManager.removeListener(mHolder, second);
+        SceneManager.scene(mHolder, Scene.MAIN);
+
+        assertEquals(switched(Scene.MAIN, Scene.SPINNER), second.events());
+        assertEquals(6, mListener.events().size());
+    }
+
+    @Test
+    public void notifiesAListenerAddedDuringASwitchFromTheNextOne() {
+        final RecordingListener added = new RecordingListener();
+        SceneManager.addListener(mHolder, new CoffeeSceneListenerAdapter() {
+            @Override
+            public void onSceneHidden(int sceneId) {
+                SceneManager.addListener(mHolder, added);
+            }
+        });
+
+        SceneManager.scene(mHolder, Scene.SPINNER);
+        assertEquals(Collections.emptyList(), added.events());
+
+        SceneManager.scene(mHolder, Scene.MAIN);
+        assertEquals(switched(Scene.SPINNER, Scene.MAIN), added.events());
+    }
+
+    /**
+     * Run a task on a new thread and wait for it, its failures are thrown again.
+     */
+    private static void runOnOtherThread(final Runnable task) throws InterruptedException {
+        final AtomicReference<Throwable> failure = new AtomicReference<>();
+        Thread thread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    task.run();
+                } catch (Throwable t) {
+                    failure.set(t);
+                }
+            }
+        });
+        thread.start();
+        thread.join();
+        if (failure.get() != null) {
+            throw new AssertionError(failure.get());
+        }
+    }
+
+    private static void advanceFrame() {
+        Robolectric.getForegroundThreadScheduler().advanceBy(FRAME_MS, TimeUnit.MILLISECONDS);
+    }
+}
@@ -0,0 +1,52 @@
+package com.geronimostudios.coffeescene;
+
+import org.junit.After;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class SceneTraceTest {
+
+    @After
+    public void tearDown() {
+        SceneTrace.setEnabled(false);
+    }
+
+    @Test
+    public void isDisabledByDefault() {
+        assertFalse(SceneTrace.isEnabled());
+    }
+
+    @Test
+    public void canBeEnabled() {
+        SceneTrace.setEnabled(true);
+        assertTrue(SceneTrace.isEnabled());
+
+        SceneTrace.setEnabled(false);
+        assertFalse(SceneTrace.isEnabled());
+    }
+
+    @Test
+    public void namesTheSectionsAfterTheHolderAndTheScene() {
+        assertEquals("CoffeeScene.switch SceneTraceTest scene=1056",
+                SceneTrace.sectionName(SceneTrace.SWITCH, SceneTraceTest.class, 0x420));
+        assertEquals("CoffeeScene.inflate ? scene=-1",
+                SceneTrace.sectionName(SceneTrace.INFLATE, null, -1));
+    }
+
+    @Test
+    public void truncatesTheLongNames() {
+        String name = SceneTrace.sectionName(SceneTrace.TRANSITION_CANCEL,
+                AHolderWithALongNameThatDoesNotFitInTheNameOfTheSectionsOfTheTraceOfTheSystemAtAll
+                        .class, Integer.MIN_VALUE);
+
+        assertEquals(127, name.length());
+        assertTrue(name.startsWith("CoffeeScene.transitionCancel AHolderWithALongName"));
+    }
+
+    private static final class
+            AHolderWithALongNameThatDoesNotFitInTheNameOfTheSectionsOfTheTraceOfTheSystemAtAll {
+    }
+}
@@ -0,0 +1,123 @@
+package com.geronimostudios.coffeescene;
+
+import android.app.Activity;
+import android.support.v4.view.ViewCompat;
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.FrameLayout;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+import org.robolectric.util.Scheduler;
+
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 27)
+public class SceneViewPoolTest {
+    private static final int LAYOUT = 0x7f0b0001;
+
+    private SceneViewPool mPool;
+    private Activity mActivity;
+    private LayoutInflater mInflater;
+    private FrameLayout mRoot;
+    private View mView;
+
+    @Before
+    public void setUp() {
+        mPool = new SceneViewPool();
+        mPool.setMaxSize(2);
+        mActivity = Robolectric.setupActivity(Activity.class);
+        mInflater = LayoutInflater.from(mActivity);
+        mRoot = new FrameLayout(mActivity);
+        mView = new View(mActivity);
+        mView.setTag(R.id.coffeescene_scene_layout, LAYOUT);
+        mView.setTag(R.id.coffeescene_animation_listener, new Object());
+        mRoot.addView(mView);
+    }
+
+    @Test
+    public void recyclesTheViewsOfADetachedRoot() {
+        mPool.recycleWhenDetached(mRoot, views());
+
+        assertNull(mView.getParent());
+        assertNull(mView.getTag(R.id.coffeescene_animation_listener));
+        assertSame(mView, mPool.obtainPooled(mInflater, LAYOUT));
+    }
+
+    @Test
+    public void keepsTheViewsOnScreenUntilTheRootIsDetached() {
+        mActivity.setContentView(mRoot);
+        assertTrue(ViewCompat.isAttachedToWindow(mRoot));
+
+        mPool.recycleWhenDetached(mRoot, views());
+        assertSame(mRoot, mView.getParent());
+        assertNull(mPool.obtainPooled(mInflater, LAYOUT));
+
+        detach(mRoot, false);
+        assertNull(mView.getParent());
+        assertNull(mView.getTag(R.id.coffeescene_animation_listener));
+        assertSame(mView, mPool.obtainPooled(mInflater, LAYOUT));
+    }
+
+    @Test
+    public void keepsTheViewsOfARootAttachedAgain() {
+        mActivity.setContentView(mRoot);
+        mPool.recycleWhenDetached(mRoot, views());
+
+        detach(mRoot, true);
+
+        assertSame(mRoot, mView.getParent());
+        assertNull(mPool.obtainPooled(mInflater, LAYOUT));
+    }
+
+    @Test
+    public void ignoresTheViewsWithoutLayout() {
+        View view = new View(mActivity);
+        mRoot.addView(view);
+
+        mPool.recycleWhenDetached(mRoot, Collections.singletonList(view));
+
+        assertSame(mRoot, view.getParent());
+    }
+
+    @Test
+    public void doesNothingWhenDisabled() {
+        mPool.setMaxSize(0);
+
+        mPool.recycleWhenDetached(mRoot, views());
+
+        assertSame(mRoot, mView.getParent());
+        assertNull(mPool.obtainPooled(mInflater, LAYOUT));
+    }
+
+    private List<View> views() {
+        return Collections.singletonList(mView);
+    }
+
+    /**
+     * Detach the root from its window and run the tasks posted meanwhile.
+     *
+     * @param attachAgain true to attach the root again before running them.
+     */
+    private static void detach(ViewGroup root, boolean attachAgain) {
+        Scheduler scheduler = Robolectric.getForegroundThreadScheduler();
+        scheduler.pause();
+        ViewGroup parent = (ViewGroup) root.getParent();
+        parent.removeView(root);
+        if (attachAgain) {
+            parent.addView(root);
+        }
+        scheduler.unPause();
+    }
+}
@@ -0,0 +1,251 @@
+package com.geronimostudios.coffeescene;
+
+import android.support.v4.util.Pair;
+import android.view.View;
+import android.widget.FrameLayout;
+
+import com.geronimostudios.coffeescene.animations.SceneAnimations;
+import com.geronimostudios.coffeescene.annotations.Scene;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 27)
+public class ScenesRegistryTest {
+    private static final int GC_ATTEMPTS = 10;
+
+    private ScenesRegistry mRegistry;
+
+    @Before
+    public void setUp() {
+        mRegistry = new ScenesRegistry();
+    }
+
+    @Test
+    public void getsTheMetaOfAReference() {
+        Object reference = new Object();
+        ScenesMeta meta = newMeta();
+
+        assertNull(mRegistry.put(reference, meta));
+
+        assertSame(meta, mRegistry.get(reference));
+        assertEquals(1, mRegistry.size());
+    }
+
+    @Test
+    public void comparesTheReferencesByIdentity() {
+        Object first = new CollidingKey();
+        Object second = new CollidingKey();
+        ScenesMeta firstMeta = newMeta();
+        ScenesMeta secondMeta = newMeta();
+
+        mRegistry.put(first, firstMeta);
+        mRegistry.put(second, secondMeta);
+
+        assertEquals(2, mRegistry.size());
+        assertSame(firstMeta, mRegistry.get(first));
+        assertSame(secondMeta, mRegistry.get(second));
+        assertNull(mRegistry.get(new CollidingKey()));
+    }
+
+    @Test
+    public void removesOnlyTheReference() {
+        Object first = new CollidingKey();
+        Object second = new CollidingKey();
+        ScenesMeta firstMeta = newMeta();
+        ScenesMeta secondMeta = newMeta();
+        mRegistry.put(first, firstMeta);
+        mRegistry.put(second, secondMeta);
+
+        assertNull(mRegistry.remove(new CollidingKey()));
+        assertSame(firstMeta, mRegistry.remove(first));
+
+        assertNull(mRegistry.get(first));
+        assertNull(mRegistry.remove(first));
+        assertSame(secondMeta, mRegistry.get(second));
+        assertEquals(1, mRegistry.size());
+    }
+
+    @Test
+    public void putReturnsTheReplacedMeta() {
+        Object reference = new Object();
+        ScenesMeta first = newMeta();
+        ScenesMeta second = newMeta();
+        mRegistry.put(reference, first);
+
+        assertSame(first, mRegistry.put(reference, second));
+
+        assertSame(second, mRegistry.get(reference));
+        assertEquals(1, mRegistry.size());
+    }
+
+    @Test
+    public void removesTheReferenceOnlyIfLinkedToTheMeta() {
+        Object reference = new Object();
+        ScenesMeta first = newMeta();
+        ScenesMeta second = newMeta();
+        mRegistry.put(reference, first);
+        mRegistry.put(reference, second);
+
+        assertFalse(mRegistry.remove(reference, first));
+        assertSame(second, mRegistry.get(reference));
+
+        assertTrue(mRegistry.remove(reference, second));
+        assertNull(mRegistry.get(reference));
+        assertFalse(mRegistry.remove(reference, second));
+        assertEquals(0, mRegistry.size());
+    }
+
+    @Test
+    public void keepsTheEntriesWhenItGrows() {
+        Object[] references = new Object[100];
+        ScenesMeta[] metas = new ScenesMeta[references.length];
+        for (int i = 0; i < references.length; ++i) {
+            references[i] = new CollidingKey();
+            metas[i] = newMeta();
+            mRegistry.put(references[i], metas[i]);
+        }
+
+        assertEquals(references.length, mRegistry.size());
+        for (int i = 0; i < references.length; ++i) {
+            assertSame(metas[i], mRegistry.get(references[i]));
+        }
+    }
+
+    @Test
+    public void purgesTheEntryOfACollectedReference() {
+        FrameLayout root = new FrameLayout(RuntimeEnvironment.application);
+        ScenesMeta meta = newMeta();
+        meta.attachTo(root);
+        putCollectableReference(meta);
+
+        for (int i = 0; i < GC_ATTEMPTS && mRegistry.getPurgedCount() == 0; ++i) {
+            System.gc();
+            System.runFinalization();
+        }
+
+        assertEquals(1, mRegistry.getPurgedCount());
+        assertEquals(0, mRegistry.size());
+        // The purged meta is detached from its root
+        assertNull(root.getTag(R.id.coffeescene_scenes_meta));
+        assertNull(meta.getRoot());
+    }
+
+    @Test
+    public void keepsTheMetasSharingARoot() {
+        FrameLayout root = new FrameLayout(RuntimeEnvironment.application);
+        Object first = new Object();
+        Object second = new Object();
+        putAttachedMeta(first, root);
+        putAttachedMeta(second, root);
+
+        // Only the root holds the metas
+        for (int i = 0; i < GC_ATTEMPTS; ++i) {
+            System.gc();
+        }
+
+        ScenesMeta firstMeta = mRegistry.get(first);
+        ScenesMeta secondMeta = mRegistry.get(second);
+        assertNotNull(firstMeta);
+        assertNotNull(secondMeta);
+        assertNotSame(firstMeta, secondMeta);
+        List<?> metas = (List<?>) root.getTag(R.id.coffeescene_scenes_meta);
+        assertEquals(2, metas.size());
+
+        firstMeta.detach();
+        assertEquals(1, metas.size());
+        assertSame(secondMeta, metas.get(0));
+        assertSame(root, secondMeta.getRoot());
+    }
+
+    @Test
+    public void createDetachesTheReplacedMeta() {
+        FrameLayout root = new FrameLayout(RuntimeEnvironment.application);
+        View main = new View(RuntimeEnvironment.application);
+        View spinner = new View(RuntimeEnvironment.application);
+        root.addView(main);
+        root.addView(spinner);
+        Object holder = new Object();
+
+        SceneController previous = SceneManager.createController(newCreator(holder, root, main,
+                spinner));
+        SceneController controller = SceneManager.createController(newCreator(holder, root,
+                main, spinner));
+        try {
+            assertEquals(Integer.MIN_VALUE, previous.current());
+            assertEquals(Scene.MAIN, controller.current());
+            assertSame(controller, SceneManager.controller(holder));
+            List<?> metas = (List<?>) root.getTag(R.id.coffeescene_scenes_meta);
+            assertEquals(1, metas.size());
+
+            // The previous controller does not release the new scenes
+            previous.release();
+            controller.scene(Scene.SPINNER, false);
+            assertEquals(Scene.SPINNER, controller.current());
+        } finally {
+            controller.release();
+        }
+        assertNull(root.getTag(R.id.coffeescene_scenes_meta));
+    }
+
+    /**
+     * Put a meta whose reference is only held by the registry.
+     */
+    private void putCollectableReference(ScenesMeta meta) {
+        mRegistry.put(new Object(), meta);
+    }
+
+    /**
+     * Put a meta only held by its root.
+     */
+    private void putAttachedMeta(Object reference, FrameLayout root) {
+        ScenesMeta meta = newMeta();
+        meta.attachTo(root);
+        mRegistry.put(reference, meta);
+    }
+
+    private static SceneCreator newCreator(Object holder, FrameLayout root, View main,
+                                           View spinner) {
+        return SceneCreator.with(holder, root)
+                .add(Scene.MAIN, main)
+                .add(Scene.SPINNER, spinner)
+                .first(Scene.MAIN)
+                .animation(SceneAnimations.NO_ANIMATION);
+    }
+
+    static ScenesMeta newMeta() {
+        return new ScenesMeta(SceneAnimations.NO_ANIMATION,
+                new ArrayList<Pair<Integer, View>>(), null, false);
+    }
+
+    /**
+     * Equal to every other key, with the same hash code.
+     */
+    private static final class CollidingKey {
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof CollidingKey;
+        }
+
+        @Override
+        public int hashCode() {
+            return 42;
+        }
+    }
+}
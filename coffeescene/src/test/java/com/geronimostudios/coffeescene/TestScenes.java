@@ -0,0 +1,49 @@
+package com.geronimostudios.coffeescene;
+
+import android.app.Activity;
+import android.view.View;
+import android.widget.FrameLayout;
+
+import com.geronimostudios.coffeescene.animations.SceneAnimations;
+import com.geronimostudios.coffeescene.annotations.Scene;
+
+import org.robolectric.Robolectric;
+
+/**
+ * Three scenes of plain views in the content of an activity.
+ */
+final class TestScenes {
+    final Activity mActivity;
+    final FrameLayout mRoot;
+    final View mMain;
+    final View mSpinner;
+    final View mPlaceholder;
+
+    TestScenes() {
+        mActivity = Robolectric.setupActivity(Activity.class);
+        mRoot = new FrameLayout(mActivity);
+        mActivity.setContentView(mRoot);
+        mMain = addView();
+        mSpinner = addView();
+        mPlaceholder = addView();
+    }
+
+    private View addView() {
+        View view = new View(mActivity);
+        mRoot.addView(view);
+        return view;
+    }
+
+    /**
+     * @return A creator of the scenes for a holder, the first scene is {@link Scene#MAIN}
+     * and the switches are not animated.
+     */
+    SceneCreator creator(Object holder) {
+        return SceneCreator.with(holder, mRoot)
+                .add(Scene.MAIN, mMain)
+                .add(Scene.SPINNER, mSpinner)
+                .add(Scene.PLACEHOLDER, mPlaceholder)
+                .first(Scene.MAIN)
+                .animation(SceneAnimations.NO_ANIMATION);
+    }
+}
@@ -0,0 +1,176 @@
+package com.geronimostudios.coffeescene;
+
+import android.support.v4.util.Pair;
+import android.view.View;
+
+import com.geronimostudios.coffeescene.animations.FadeAnimationAdapter;
+import com.geronimostudios.coffeescene.animations.SceneAnimations;
+import com.geronimostudios.coffeescene.annotations.Scene;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+import org.robolectric.shadows.ShadowChoreographer;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static com.geronimostudios.coffeescene.RecordingListener.changed;
+import static com.geronimostudios.coffeescene.RecordingListener.displayed;
+import static com.geronimostudios.coffeescene.RecordingListener.hidden;
+import static com.geronimostudios.coffeescene.RecordingListener.switched;
+import static com.geronimostudios.coffeescene.RecordingListener.transitionCanceled;
+import static com.geronimostudios.coffeescene.RecordingListener.transitionEnded;
+import static com.geronimostudios.coffeescene.RecordingListener.transitionStarted;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * <p>The transition events of the switches animated with a fade of {@value #DURATION} ms.
+ * The animations are driven by the clock of Robolectric, one frame every
+ * {@value #FRAME_MS} ms.</p>
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 27)
+public class TransitionListenerTest {
+    private static final int DURATION = 200;
+    private static final int FRAME_MS = 16;
+
+    private final Object mHolder = new Object();
+    private RecordingListener mListener;
+    private SceneController mController;
+
+    @Before
+    public void setUp() {
+        ShadowChoreographer.setPostFrameCallbackDelay(FRAME_MS);
+        mListener = new RecordingListener();
+        mController = SceneManager.createController(new TestScenes().creator(mHolder)
+                .animation(new FadeAnimationAdapter.Builder().duration(DURATION).build())
+                .listener(mListener));
+        mListener.clear();
+    }
+
+    @After
+    public void tearDown() {
+        mController.release();
+        ShadowChoreographer.setPostFrameCallbackDelay(0);
+    }
+
+    @Test
+    public void endsTheTransitionOnceTheAnimationsAreDone() {
+        mController.scene(Scene.SPINNER);
+        List<String> expected = new ArrayList<>(switched(Scene.MAIN, Scene.SPINNER));
+        expected.add(transitionStarted(Scene.SPINNER));
+        assertEquals(expected, mListener.events());
+
+        advance(DURATION / 2);
+        assertEquals(expected, mListener.events());
+
+        advance(DURATION);
+        expected.add(transitionEnded(Scene.SPINNER));
+        assertEquals(expected, mListener.events());
+    }
+
+    @Test
+    public void endsTheTransitionOfASwitchWithoutAnimation() {
+        mController.scene(Scene.SPINNER, false);
+
+        List<String> expected = new ArrayList<>(switched(Scene.MAIN, Scene.SPINNER));
+        expected.add(transitionStarted(Scene.SPINNER));
+        expected.add(transitionEnded(Scene.SPINNER));
+        assertEquals(expected, mListener.events());
+    }
+
+    @Test
+    public void cancelsTheTransitionOfAnInterruptedSwitch() {
+        mController.scene(Scene.SPINNER);
+        advance(DURATION / 2);
+        mListener.clear();
+
+        mController.scene(Scene.PLACEHOLDER);
+        advance(DURATION * 2);
+
+        List<String> expected = new ArrayList<>();
+        expected.add(transitionCanceled(Scene.SPINNER));
+        expected.addAll(switched(Scene.SPINNER, Scene.PLACEHOLDER));
+        expected.add(transitionStarted(Scene.PLACEHOLDER));
+        expected.add(transitionEnded(Scene.PLACEHOLDER));
+        assertEquals(expected, mListener.events());
+    }
+
+    /**
+     * Regression test: the animations of a switch requested by a listener were tracked
+     * by the transition of the switch being notified, and the events of both were mixed.
+     */
+    @Test
+    public void tracksTheSwitchRequestedByAListenerOnItsOwn() {
+        SceneManager.addListener(mHolder, new CoffeeSceneListenerAdapter() {
+            @Override
+            public void onSceneDisplayed(int sceneId) {
+                if (sceneId == Scene.SPINNER) {
+                    mController.scene(Scene.PLACEHOLDER);
+                }
+            }
+        });
+
+        mController.scene(Scene.SPINNER);
+        List<String> expected = new ArrayList<>(Arrays.asList(
+                hidden(Scene.MAIN),
+                displayed(Scene.SPINNER),
+                // The switch requested by the second listener
+                hidden(Scene.SPINNER),
+                displayed(Scene.PLACEHOLDER),
+                changed(Scene.PLACEHOLDER),
+                transitionStarted(Scene.PLACEHOLDER),
+                // The end of the notification of the first switch, it is replaced
+                changed(Scene.SPINNER)));
+        assertEquals(expected, mListener.events());
+
+        advance(DURATION * 2);
+        expected.add(transitionEnded(Scene.PLACEHOLDER));
+        assertEquals(expected, mListener.events());
+        assertEquals(Scene.PLACEHOLDER, mController.current());
+    }
+
+    /**
+     * Regression test: a {@link CoffeeSceneListenerAdapter} turned the tracking of the
+     * animations on, it must stay a plain {@link Listener}.
+     */
+    @Test
+    public void onlyTracksTheTransitionsForATransitionListener() {
+        assertFalse(TransitionListener.class.isAssignableFrom(CoffeeSceneListenerAdapter.class));
+        assertTrue(TransitionListener.class.isAssignableFrom(
+                CoffeeSceneTransitionListenerAdapter.class));
+
+        ScenesMeta meta = new ScenesMeta(SceneAnimations.FADE,
+                new ArrayList<Pair<Integer, View>>(), new CoffeeSceneListenerAdapter(), false);
+        assertFalse(meta.beginTransition());
+
+        meta.addListener(new CoffeeSceneTransitionListenerAdapter());
+        assertTrue(meta.beginTransition());
+        meta.endTransitionStart();
+        meta.detach();
+    }
+
+    @Test
+    public void doesNotNotifyTheTransitionsOfAReleasedHolder() {
+        mController.scene(Scene.SPINNER);
+        mController.release();
+        advance(DURATION * 2);
+
+        assertFalse(mListener.events().contains(transitionEnded(Scene.SPINNER)));
+        assertFalse(mListener.events().contains(transitionCanceled(Scene.SPINNER)));
+    }
+
+    private static void advance(int ms) {
+        Robolectric.getForegroundThreadScheduler().advanceBy(ms, TimeUnit.MILLISECONDS);
+    }
+}
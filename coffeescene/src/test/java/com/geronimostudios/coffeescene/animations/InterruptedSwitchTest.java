@@ -0,0 +1,215 @@
+package com.geronimostudios.coffeescene.animations;
+
+import android.app.Activity;
+import android.view.View;
+import android.view.ViewGroup;
+import android.view.animation.DecelerateInterpolator;
+import android.widget.FrameLayout;
+
+import com.geronimostudios.coffeescene.SceneController;
+import com.geronimostudios.coffeescene.SceneCreator;
+import com.geronimostudios.coffeescene.SceneManager;
+import com.geronimostudios.coffeescene.annotations.Scene;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+import org.robolectric.shadows.ShadowChoreographer;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * <p>A switch requested while the previous one is animated cancels its animations.
+ * Once the last switch is done, the scenes must be in the same state as after
+ * uninterrupted switches: the visibility, alpha and translation of the last animations,
+ * without the hardware layers of the fades.</p>
+ *
+ * <p>The animations are driven by the clock of Robolectric, one frame every
+ * {@value #FRAME_MS} ms.</p>
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 27)
+public class InterruptedSwitchTest {
+    private static final int WIDTH = 400;
+    private static final int HEIGHT = 600;
+    private static final int DURATION = 200;
+    private static final int FRAME_MS = 16;
+
+    private FrameLayout mRoot;
+    private View mMain;
+    private View mSpinner;
+    private View mPlaceholder;
+    private SceneController mController;
+
+    @Before
+    public void setUp() {
+        ShadowChoreographer.setPostFrameCallbackDelay(FRAME_MS);
+        Activity activity = Robolectric.setupActivity(Activity.class);
+        mRoot = new FrameLayout(activity);
+        activity.setContentView(mRoot, new ViewGroup.LayoutParams(WIDTH, HEIGHT));
+        mMain = addScene();
+        mSpinner = addScene();
+        mPlaceholder = addScene();
+        mRoot.measure(View.MeasureSpec.makeMeasureSpec(WIDTH, View.MeasureSpec.EXACTLY),
+                View.MeasureSpec.makeMeasureSpec(HEIGHT, View.MeasureSpec.EXACTLY));
+        mRoot.layout(0, 0, WIDTH, HEIGHT);
+    }
+
+    @After
+    public void tearDown() {
+        if (mController != null) {
+            mController.release();
+        }
+        ShadowChoreographer.setPostFrameCallbackDelay(0);
+    }
+
+    @Test
+    public void fadeInterruptedByTheReverseSwitch() {
+        create(new FadeAnimationAdapter.Builder().duration(DURATION).hardwareLayer(true).build());
+
+        mController.scene(Scene.SPINNER);
+        advanceHalfway();
+        assertFading(mMain);
+        assertFading(mSpinner);
+
+        mController.scene(Scene.MAIN);
+        advanceToTheEnd();
+
+        assertScene(mMain, View.VISIBLE, 1f, 0f);
+        assertScene(mSpinner, View.GONE, 0f, 0f);
+        assertScene(mPlaceholder, View.GONE, 0f, 0f);
+    }
+
+    @Test
+    public void fadeInterruptedByAnotherScene() {
+        create(new FadeAnimationAdapter.Builder().duration(DURATION).hardwareLayer(true).build());
+
+        mController.scene(Scene.SPINNER);
+        advanceHalfway();
+        mController.scene(Scene.PLACEHOLDER);
+        advanceToTheEnd();
+
+        assertScene(mMain, View.GONE, 0f, 0f);
+        assertScene(mSpinner, View.GONE, 0f, 0f);
+        assertScene(mPlaceholder, View.VISIBLE, 1f, 0f);
+    }
+
+    @Test
+    public void fadeInterruptedWithoutAnimation() {
+        create(new FadeAnimationAdapter.Builder().duration(DURATION).hardwareLayer(true).build());
+
+        mController.scene(Scene.SPINNER);
+        advanceHalfway();
+        mController.scene(Scene.MAIN, false);
+        advanceToTheEnd();
+
+        assertScene(mMain, View.VISIBLE, 1f, 0f);
+        assertScene(mSpinner, View.GONE, 0f, 0f);
+        assertScene(mPlaceholder, View.GONE, 0f, 0f);
+    }
+
+    @Test
+    public void translateXInterruptedByTheReverseSwitch() {
+        create(new TranslateXAnimationAdapter(new DecelerateInterpolator(), DURATION));
+
+        // MAIN leaves to the left, SPINNER comes from the right
+        mController.scene(Scene.SPINNER);
+        advanceHalfway();
+        assertTranslating(mMain);
+        assertTranslating(mSpinner);
+
+        // MAIN comes back from where it is, SPINNER leaves to the right
+        mController.scene(Scene.MAIN);
+        advanceToTheEnd();
+
+        assertScene(mMain, View.VISIBLE, 1f, 0f);
+        assertScene(mSpinner, View.GONE, 1f, WIDTH);
+        assertScene(mPlaceholder, View.GONE, 1f, 0f);
+    }
+
+    @Test
+    public void translateXInterruptedByAnotherScene() {
+        create(new TranslateXAnimationAdapter(new DecelerateInterpolator(), DURATION));
+
+        mController.scene(Scene.SPINNER);
+        advanceHalfway();
+        // SPINNER leaves to the left too, the animation of MAIN is not interrupted
+        mController.scene(Scene.PLACEHOLDER);
+        advanceToTheEnd();
+
+        assertScene(mMain, View.GONE, 1f, -WIDTH);
+        assertScene(mSpinner, View.GONE, 1f, -WIDTH);
+        assertScene(mPlaceholder, View.VISIBLE, 1f, 0f);
+    }
+
+    @Test
+    public void translateXInterruptedWithoutAnimation() {
+        create(new TranslateXAnimationAdapter(new DecelerateInterpolator(), DURATION));
+
+        mController.scene(Scene.SPINNER);
+        advanceHalfway();
+        mController.scene(Scene.MAIN, false);
+        advanceToTheEnd();
+
+        assertScene(mMain, View.VISIBLE, 1f, 0f);
+        assertEquals(View.GONE, mSpinner.getVisibility());
+        assertEquals(View.LAYER_TYPE_NONE, mSpinner.getLayerType());
+        assertScene(mPlaceholder, View.GONE, 1f, 0f);
+    }
+
+    private View addScene() {
+        View scene = new FrameLayout(mRoot.getContext());
+        mRoot.addView(scene, new FrameLayout.LayoutParams(
+                ViewGroup.LayoutParams.MATCH_PARENT, ViewGroup.LayoutParams.MATCH_PARENT));
+        return scene;
+    }
+
+    private void create(AnimationAdapter adapter) {
+        mController = SceneManager.createController(SceneCreator.with(mRoot)
+                .animation(adapter)
+                .add(Scene.MAIN, mMain)
+                .add(Scene.SPINNER, mSpinner)
+                .add(Scene.PLACEHOLDER, mPlaceholder)
+                .first(Scene.MAIN));
+    }
+
+    private static void advanceHalfway() {
+        Robolectric.getForegroundThreadScheduler().advanceBy(DURATION / 2, TimeUnit.MILLISECONDS);
+    }
+
+    private static void advanceToTheEnd() {
+        Robolectric.getForegroundThreadScheduler().advanceBy(DURATION * 4, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Check that the fade of a scene is running, so the next switch interrupts it.
+     */
+    private static void assertFading(View scene) {
+        assertEquals(View.VISIBLE, scene.getVisibility());
+        assertTrue("alpha " + scene.getAlpha(), scene.getAlpha() > 0f && scene.getAlpha() < 1f);
+        assertEquals(View.LAYER_TYPE_HARDWARE, scene.getLayerType());
+    }
+
+    /**
+     * Check that the translation of a scene is running, so the next switch interrupts it.
+     */
+    private static void assertTranslating(View scene) {
+        float translationX = Math.abs(scene.getTranslationX());
+        assertEquals(View.VISIBLE, scene.getVisibility());
+        assertTrue("translationX " + translationX, translationX > 0f && translationX < WIDTH);
+    }
+
+    private static void assertScene(View scene, int visibility, float alpha, float translationX) {
+        assertEquals(visibility, scene.getVisibility());
+        assertEquals(alpha, scene.getAlpha(), 0f);
+        assertEquals(translationX, scene.getTranslationX(), 0f);
+        assertEquals(View.LAYER_TYPE_NONE, scene.getLayerType());
+    }
+}
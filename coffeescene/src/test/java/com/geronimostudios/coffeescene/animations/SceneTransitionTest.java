@@ -0,0 +1,137 @@
+package com.geronimostudios.coffeescene.animations;
+
+import org.junit.After;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class SceneTransitionTest {
+    private final CountingRunnable mOnEnded = new CountingRunnable();
+    private final SceneTransition mTransition = new SceneTransition(mOnEnded);
+
+    @After
+    public void tearDown() {
+        assertNull(SceneTransition.starting());
+    }
+
+    @Test
+    public void endsWhenTheLastAnimationIsDone() {
+        mTransition.begin();
+        assertSame(mTransition, SceneTransition.starting());
+        int first = mTransition.track();
+        int second = mTransition.track();
+        assertFalse(mTransition.end());
+
+        mTransition.onAnimationDone(first);
+        assertTrue(mTransition.isRunning());
+        assertEquals(0, mOnEnded.mCount);
+
+        mTransition.onAnimationDone(second);
+        assertFalse(mTransition.isRunning());
+        assertEquals(1, mOnEnded.mCount);
+    }
+
+    @Test
+    public void isDoneAtTheEndOfTheStartWithoutAnimation() {
+        mTransition.begin();
+
+        assertTrue(mTransition.end());
+        assertFalse(mTransition.isRunning());
+        assertEquals(0, mOnEnded.mCount);
+    }
+
+    @Test
+    public void doesNotEndDuringTheStartingPhase() {
+        mTransition.begin();
+        // Ex: an animation canceled by the next one of the same switch
+        mTransition.onAnimationDone(mTransition.track());
+        int generation = mTransition.track();
+
+        assertFalse(mTransition.end());
+        assertEquals(0, mOnEnded.mCount);
+
+        mTransition.onAnimationDone(generation);
+        assertEquals(1, mOnEnded.mCount);
+    }
+
+    @Test
+    public void ignoresTheAnimationsOfAPreviousSwitch() {
+        mTransition.begin();
+        int previous = mTransition.track();
+        mTransition.end();
+
+        mTransition.begin();
+        int generation = mTransition.track();
+        mTransition.end();
+        mTransition.onAnimationDone(previous);
+
+        assertTrue(mTransition.isRunning());
+        assertEquals(0, mOnEnded.mCount);
+        mTransition.onAnimationDone(generation);
+        assertEquals(1, mOnEnded.mCount);
+    }
+
+    @Test
+    public void stopsTrackingAtTheEndOfTheStart() {
+        mTransition.begin();
+        mTransition.end();
+
+        // The animations started after the adapter, ex: by a listener, are not tracked
+        assertNull(SceneTransition.starting());
+    }
+
+    @Test
+    public void restoresTheStartingTransitionAfterANestedSwitch() {
+        CountingRunnable nestedOnEnded = new CountingRunnable();
+        SceneTransition nested = new SceneTransition(nestedOnEnded);
+
+        mTransition.begin();
+        int first = mTransition.track();
+        nested.begin();
+        assertSame(nested, SceneTransition.starting());
+        int nestedGeneration = nested.track();
+        assertFalse(nested.end());
+        assertSame(mTransition, SceneTransition.starting());
+        int second = mTransition.track();
+        assertFalse(mTransition.end());
+
+        mTransition.onAnimationDone(first);
+        assertEquals(0, mOnEnded.mCount);
+        mTransition.onAnimationDone(second);
+        assertEquals(1, mOnEnded.mCount);
+        assertEquals(0, nestedOnEnded.mCount);
+        nested.onAnimationDone(nestedGeneration);
+        assertEquals(1, nestedOnEnded.mCount);
+    }
+
+    @Test
+    public void doesNotEndDuringTheStartOfANestedSwitch() {
+        SceneTransition nested = new SceneTransition(new CountingRunnable());
+
+        mTransition.begin();
+        int first = mTransition.track();
+        nested.begin();
+        // Ex: the nested switch cancels an animation of the outer one
+        mTransition.onAnimationDone(first);
+        nested.end();
+        int second = mTransition.track();
+        mTransition.end();
+
+        assertEquals(0, mOnEnded.mCount);
+        mTransition.onAnimationDone(second);
+        assertEquals(1, mOnEnded.mCount);
+    }
+
+    private static final class CountingRunnable implements Runnable {
+        private int mCount;
+
+        @Override
+        public void run() {
+            mCount++;
+        }
+    }
+}